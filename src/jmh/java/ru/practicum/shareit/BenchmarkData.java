@@ -0,0 +1,105 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingRepository;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.CommentRepository;
+import ru.practicum.shareit.user.service.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class BenchmarkData {
+    private static final BookingStatus[] STATUSES = {BookingStatus.WAITING, BookingStatus.APPROVED, BookingStatus.REJECTED};
+    public static final String[] WORDS = {"дрель", "отвертка", "молоток", "пила", "лестница", "палатка",
+            "велосипед", "самокат", "проектор", "камера", "удлинитель", "перфоратор"};
+
+    private final Random random = new Random(42);
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+
+    private User owner;
+    private User booker;
+
+    private BenchmarkData(ConfigurableApplicationContext context) {
+        userRepository = context.getBean(UserRepository.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        commentRepository = context.getBean(CommentRepository.class);
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of("--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.orm.jpa=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "--logging.level.org.springframework.transaction=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(args.toArray(new String[0]));
+    }
+
+    public static BenchmarkData seed(ConfigurableApplicationContext context, int items, int bookingsPerItem, int commentsPerItem) {
+        BenchmarkData data = new BenchmarkData(context);
+        data.seed(items, bookingsPerItem, commentsPerItem);
+        return data;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public User getBooker() {
+        return booker;
+    }
+
+    private void seed(int items, int bookingsPerItem, int commentsPerItem) {
+        owner = userRepository.save(new User("owner@bench.ru", "Owner"));
+        booker = userRepository.save(new User("booker@bench.ru", "Booker"));
+
+        List<Item> savedItems = itemRepository.saveAll(createItems(items));
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+
+        for (Item item : savedItems) {
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusDays(i - bookingsPerItem / 2L);
+                bookings.add(new Booking(item, booker, STATUSES[random.nextInt(STATUSES.length)],
+                        start, start.plusHours(12)));
+            }
+            for (int i = 0; i < commentsPerItem; i++) {
+                comments.add(new Comment("Отличная " + item.getName(), item, now.minusDays(i), booker));
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+    }
+
+    private List<Item> createItems(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)];
+            String description = WORDS[random.nextInt(WORDS.length)] + " ударный " + i;
+            items.add(new Item(name, description, owner, random.nextInt(4) != 0));
+        }
+        return items;
+    }
+}
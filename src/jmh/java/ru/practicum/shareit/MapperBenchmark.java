@@ -0,0 +1,109 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comments.dto.CommentMapper;
+import ru.practicum.shareit.comments.dto.CommentResponse;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private final ItemMapper itemMapper = new ItemMapper();
+    private final BookingMapper bookingMapper = new BookingMapper();
+    private final CommentMapper commentMapper = new CommentMapper();
+
+    private final List<Item> items = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<Comment> comments = new ArrayList<>();
+    private List<CommentResponse> commentResponses;
+    private BookingShort lastBooking;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1, "owner@bench.ru", "Owner");
+        User booker = new User(2, "booker@bench.ru", "Booker");
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < size; i++) {
+            Item item = new Item(i, BenchmarkData.WORDS[i % BenchmarkData.WORDS.length], "Описание " + i, owner, true);
+            items.add(item);
+            bookings.add(new Booking(i, now.plusDays(i), now.plusDays(i + 1), BookingStatus.APPROVED, booker, item));
+            comments.add(new Comment(i, "Отзыв " + i, booker, now.minusDays(i)));
+        }
+        commentResponses = List.of(commentMapper.commentResponseFromComment(comments.get(0), booker.getName()));
+        lastBooking = new BookingShort() {
+            @Override
+            public Integer getId() {
+                return 1;
+            }
+
+            @Override
+            public Integer getBookerId() {
+                return booker.getId();
+            }
+
+            @Override
+            public Integer getItemId() {
+                return 1;
+            }
+        };
+    }
+
+    @Benchmark
+    public List<ItemResponse> itemsForResponse() {
+        return itemMapper.itemsForResponse(items);
+    }
+
+    @Benchmark
+    public void itemForOwner(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(itemMapper.itemForOwner(item, commentResponses, lastBooking, lastBooking));
+        }
+    }
+
+    @Benchmark
+    public void bookingForResponse(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(bookingMapper.bookingForResponse(booking));
+        }
+    }
+
+    @Benchmark
+    public void commentResponseFromComment(Blackhole blackhole) {
+        for (Comment comment : comments) {
+            blackhole.consume(commentMapper.commentResponseFromComment(comment, "Booker"));
+        }
+    }
+}
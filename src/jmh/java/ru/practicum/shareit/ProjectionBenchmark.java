@@ -0,0 +1,115 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"100"})
+    private int items;
+
+    @Param({"10"})
+    private int bookingsPerItem;
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private ItemRepository itemRepository;
+    private BookingRepository bookingRepository;
+    private ItemMapper itemMapper;
+    private BookingMapper bookingMapper;
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        itemRepository = context.getBean(ItemRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        itemMapper = context.getBean(ItemMapper.class);
+        bookingMapper = context.getBean(BookingMapper.class);
+        data = BenchmarkData.seed(context, items, bookingsPerItem, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingResponse> ownerBookingsFromEntities() {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("select b from Booking b join fetch b.item i join fetch b.booker " +
+                        "where i.owner.id = :userId order by b.start desc, b.id desc", Booking.class)
+                .setParameter("userId", data.getOwner().getId())
+                .setMaxResults(pageSize)
+                .getResultStream()
+                .map(bookingMapper::bookingForResponse)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<BookingResponse> ownerBookingsFromProjection() {
+        return transactionTemplate.execute(status -> bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(data.getOwner().getId())
+                .owner(true)
+                .limit(pageSize)
+                .build()));
+    }
+
+    @Benchmark
+    public List<ItemResponse> ownerItemsFromEntities() {
+        return transactionTemplate.execute(status -> itemMapper.itemsForResponse(entityManager
+                .createQuery("select i from Item i where i.owner.id = :userId order by i.id", Item.class)
+                .setParameter("userId", data.getOwner().getId())
+                .setMaxResults(pageSize)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public List<ItemResponse> ownerItemsFromProjection() {
+        return transactionTemplate.execute(status -> itemRepository
+                .findResponsesByOwnerId(data.getOwner().getId(), PageRequest.of(0, pageSize)));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"100", "1000"})
+    private int items;
+
+    @Param({"10"})
+    private int bookingsPerItem;
+
+    @Param({"2"})
+    private int commentsPerItem;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        data = BenchmarkData.seed(context, items, bookingsPerItem, commentsPerItem);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> findByOwnerId() {
+        return itemService.findByOwnerId(data.getOwner().getId(), 0, pageSize);
+    }
+
+    @Benchmark
+    public List<Item> searchBySubstring() {
+        return itemService.searchBySubstring("дрел", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BookingResponse> getBookingsByOwner() {
+        return bookingService.getBookingsByUserId(data.getOwner().getId(), "ALL", true, 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BookingResponse> getBookingsByBookerPast() {
+        return bookingService.getBookingsByUserId(data.getBooker().getId(), "PAST", false, 0, pageSize);
+    }
+}
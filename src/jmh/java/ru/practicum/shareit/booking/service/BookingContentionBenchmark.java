@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.AccessibilityErrorException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingContentionBenchmark {
+    private static final int SLOTS = 2000;
+
+    @State(Scope.Benchmark)
+    public static class HotItem {
+        private ConfigurableApplicationContext context;
+        private BookingService bookingService;
+        private BookingRepository bookingRepository;
+        private BookingIntervalIndex bookingIntervalIndex;
+        private User owner;
+        private User booker;
+        private Item item;
+        private LocalDateTime firstSlot;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkData.start();
+            bookingService = context.getBean(BookingService.class);
+            bookingRepository = context.getBean(BookingRepository.class);
+            bookingIntervalIndex = context.getBean(BookingIntervalIndex.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            owner = userRepository.save(new User("owner@bench.ru", "Owner"));
+            booker = userRepository.save(new User("booker@bench.ru", "Booker"));
+            item = context.getBean(ItemRepository.class).save(new Item("Дрель", "Горячая вещь", owner, true));
+            firstSlot = LocalDateTime.now().plusDays(1);
+        }
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            bookingRepository.deleteAllInBatch();
+            bookingIntervalIndex.evict(item.getId());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long booked;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            booked = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void bookers1(HotItem hotItem, Outcome outcome) {
+        bookAndApprove(hotItem, outcome);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void bookers8(HotItem hotItem, Outcome outcome) {
+        bookAndApprove(hotItem, outcome);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void bookers64(HotItem hotItem, Outcome outcome) {
+        bookAndApprove(hotItem, outcome);
+    }
+
+    private void bookAndApprove(HotItem hotItem, Outcome outcome) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = hotItem.firstSlot.plusHours(random.nextInt(SLOTS));
+        LocalDateTime end = start.plusHours(1 + random.nextInt(3));
+        try {
+            Booking booking = hotItem.bookingService.createBooking(new Booking(hotItem.item, start, end, hotItem.booker));
+            hotItem.bookingService.approveOrReject(booking.getId(), hotItem.owner.getId(), "true", null);
+            outcome.booked++;
+        } catch (AccessibilityErrorException e) {
+            outcome.conflicts++;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
+import ru.practicum.shareit.item.dto.ItemRequest;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.service.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemBatchBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+    private User owner;
+    private List<ItemRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        owner = context.getBean(UserRepository.class).save(new User("owner@bench.ru", "Owner"));
+        Request request = context.getBean(RequestRepository.class)
+                .save(new Request("Нужны инструменты", owner, LocalDateTime.now()));
+
+        requests = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            requests.add(new ItemRequest(BenchmarkData.WORDS[i % BenchmarkData.WORDS.length], "Описание " + i,
+                    true, i % 10 == 0 ? request.getId() : null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Benchmark
+    public List<ItemBatchResult> createItems() {
+        return itemService.createItems(owner.getId(), requests);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.item.dto.ItemResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    @Param({"10000"})
+    private int items;
+
+    @Param({"дрел", "ат", "перфоратор ударн"})
+    private String text;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemSearchIndex itemSearchIndex;
+    private final PageRequest page = PageRequest.of(0, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start("shareit.search.index.enabled=true");
+        itemRepository = context.getBean(ItemRepository.class);
+        itemSearchIndex = context.getBean(ItemSearchIndex.class);
+
+        BenchmarkData.seed(context, items, 0, 0);
+        itemSearchIndex.search(text, page);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemResponse> database() {
+        return itemRepository.searchAvailable(text, page);
+    }
+
+    @Benchmark
+    public List<ItemResponse> index() {
+        List<Integer> ids = itemSearchIndex.search(text, page);
+        return ids.isEmpty() ? List.of() : itemRepository.findResponsesByIdIn(ids);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public enum BookingPhase {
+    FUTURE, CURRENT, PAST;
+
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        if (start.isAfter(now)) {
+            return FUTURE;
+        }
+        return CURRENT;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum BookingState {
+    ALL(null, null),
+    CURRENT(BookingPhase.CURRENT, null),
+    PAST(BookingPhase.PAST, null),
+    FUTURE(BookingPhase.FUTURE, null),
+    WAITING(null, BookingStatus.WAITING),
+    REJECTED(null, BookingStatus.REJECTED);
+
+    private final BookingPhase phase;
+
+    private final BookingStatus status;
+
+    public static BookingState from(String state) {
+        for (BookingState value : BookingState.values()) {
+            if (value.name().equals(state)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
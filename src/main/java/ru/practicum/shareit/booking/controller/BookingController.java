@@ -1,16 +1,30 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingRequest;
 import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportService;
+import ru.practicum.shareit.version.EntityTags;
 
 import javax.validation.Valid;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @RestController
@@ -18,8 +32,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String CURSOR_PAGE_SIZE = "100";
+
     private final BookingServiceImpl bookingService;
     private final BookingMapper bookingMapper;
+    private final ObjectMapper objectMapper;
+    private final ExportService exportService;
 
     @PostMapping
     public BookingResponse createBooking(@RequestBody @Valid BookingRequest booking,
@@ -31,22 +50,38 @@ public class BookingController {
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingResponse approvedBooking(@PathVariable Integer bookingId,
-                                           @RequestHeader(value = "X-Sharer-User-Id") Integer userId,
-                                           @RequestParam String approved) {
-        log.info("Пришёл PATCH запрос /bookings/{} от пользователя id {}", bookingId, userId);
-        BookingResponse response = bookingMapper.bookingForResponse(bookingService.approveOrReject(bookingId, userId, approved));
+    public ResponseEntity<BookingResponse> approvedBooking(@PathVariable Integer bookingId,
+                                                           @RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                           @RequestParam String approved) {
+        log.info("Пришёл PATCH запрос /bookings/{} от пользователя id {} с If-Match {}", bookingId, userId, ifMatch);
+        Booking booking = bookingService.approveOrReject(bookingId, userId, approved, EntityTags.parse(ifMatch));
+        BookingResponse response = bookingMapper.bookingForResponse(booking);
         log.info("Отправлен ответ approvedBooking /bookings/{} с телом {}", bookingId, response);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.format(booking.getVersion()))
+                .body(response);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingBatchResult> approvedBookings(@RequestBody List<BookingDecision> decisions,
+                                                     @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
+        log.info("Пришёл PATCH запрос /bookings/batch от пользователя id {} с {} решениями", userId, decisions.size());
+        List<BookingBatchResult> response = bookingService.approveOrRejectAll(userId, decisions);
+        log.info("Отправлен ответ approvedBookings /bookings/batch с {} результатами", response.size());
         return response;
     }
 
     @GetMapping(path = {"/", "/{bookingId}"})
-    public BookingResponse getBookingById(@PathVariable(required = false, value = "bookingId") Integer bookingId,
-                                          @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
+    public ResponseEntity<BookingResponse> getBookingById(@PathVariable(required = false, value = "bookingId") Integer bookingId,
+                                                          @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
         log.info("Пришёл GET запрос /bookings/{} от пользователя id {}", bookingId, userId);
-        BookingResponse response = bookingMapper.bookingForResponse(bookingService.getBooking(bookingId, userId));
+        Booking booking = bookingService.getBooking(bookingId, userId);
+        BookingResponse response = bookingMapper.bookingForResponse(booking);
         log.info("Отправлен ответ getBookingById /bookings/{} с телом {}", bookingId, response);
-        return response;
+        return ResponseEntity.ok()
+                .eTag(EntityTags.format(booking.getVersion()))
+                .body(response);
     }
 
     @GetMapping
@@ -54,7 +89,7 @@ public class BookingController {
                                                      @RequestParam(required = false, defaultValue = "ALL") String state,
                                                      @RequestParam(required = false) @Validated Integer from, @RequestParam(required = false) @Validated Integer size) {
         log.info("Пришёл GET запрос /bookings от пользователя id {}", userId);
-        List<BookingResponse> response = bookingMapper.listBookingResponseFromBookings(bookingService.getBookingsByUserId(userId, state, false, from, size));
+        List<BookingResponse> response = bookingService.getBookingsByUserId(userId, state, false, from, size);
         log.info("Отправлен ответ getBookingsByUserId /bookings с телом {}", response);
         return response;
     }
@@ -64,8 +99,73 @@ public class BookingController {
                                                              @RequestParam(required = false, defaultValue = "ALL") String state,
                                                              @RequestParam(required = false) Integer from, @RequestParam(required = false) Integer size) {
         log.info("Пришёл GET запрос /bookings/owner от пользователя id {}", userId);
-        List<BookingResponse> response = bookingMapper.listBookingResponseFromBookings(bookingService.getBookingsByUserId(userId, state, true, from, size));
+        List<BookingResponse> response = bookingService.getBookingsByUserId(userId, state, true, from, size);
         log.info("Отправлен ответ getBookingsForItemsByUserId /bookings/owner с телом {}", response);
         return response;
     }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingResponse>> getBookingsByUserIdAfter(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                                          @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                                          @RequestParam String cursor, @RequestParam(defaultValue = CURSOR_PAGE_SIZE) Integer size) {
+        log.info("Пришёл GET запрос /bookings с курсором {} от пользователя id {}", cursor, userId);
+        ResponseEntity<List<BookingResponse>> response = page(bookingService.getBookingsByUserIdAfter(userId, state, false, cursor, size), size);
+        log.info("Отправлен ответ getBookingsByUserIdAfter /bookings с телом {}", response.getBody());
+        return response;
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<List<BookingResponse>> getBookingsForItemsByUserIdAfter(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                                                  @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                                                  @RequestParam String cursor, @RequestParam(defaultValue = CURSOR_PAGE_SIZE) Integer size) {
+        log.info("Пришёл GET запрос /bookings/owner с курсором {} от пользователя id {}", cursor, userId);
+        ResponseEntity<List<BookingResponse>> response = page(bookingService.getBookingsByUserIdAfter(userId, state, true, cursor, size), size);
+        log.info("Отправлен ответ getBookingsForItemsByUserIdAfter /bookings/owner с телом {}", response.getBody());
+        return response;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamBookingsByUserId(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                        @RequestParam(required = false, defaultValue = "ALL") String state) {
+        log.info("Пришёл GET запрос /bookings/stream от пользователя id {}", userId);
+        return ndjson(bookingService.streamBookingsByUserId(userId, state, false));
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamBookingsForItemsByUserId(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                                @RequestParam(required = false, defaultValue = "ALL") String state) {
+        log.info("Пришёл GET запрос /bookings/owner/stream от пользователя id {}", userId);
+        return ndjson(bookingService.streamBookingsByUserId(userId, state, true));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsForItemsByUserId(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                                                @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Пришёл GET запрос /bookings/owner/export от пользователя id {} в формате {}", userId, format);
+        ExportFormat exportFormat = exportService.parseFormat(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(exportService.exportOwnerBookings(userId, exportFormat));
+    }
+
+    private ResponseEntity<List<BookingResponse>> page(List<BookingResponse> bookings, int size) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            builder.header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return builder.body(bookings);
+    }
+
+    private StreamingResponseBody ndjson(Stream<List<BookingResponse>> chunks) {
+        return output -> {
+            Iterator<List<BookingResponse>> iterator = chunks.iterator();
+            while (iterator.hasNext()) {
+                for (BookingResponse response : iterator.next()) {
+                    output.write(objectMapper.writeValueAsBytes(response));
+                    output.write('\n');
+                }
+                output.flush();
+            }
+        };
+    }
 }
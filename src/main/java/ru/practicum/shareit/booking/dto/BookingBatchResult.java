@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+
+@Data
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+public class BookingBatchResult {
+
+    private Integer bookingId;
+
+    private BookingStatus status;
+
+    private String error;
+}
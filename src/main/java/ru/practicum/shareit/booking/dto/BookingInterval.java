@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingInterval {
+
+    Integer getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
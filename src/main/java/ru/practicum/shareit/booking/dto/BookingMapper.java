@@ -2,30 +2,16 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemForBooking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserResponse;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Service
 @RequiredArgsConstructor
 public class BookingMapper {
 
-    public Booking bookingForCreate(Booking newBooking, User user, Item item) {
-        Booking booking = new Booking();
-        booking.setStart(newBooking.getStart());
-        booking.setEnd(newBooking.getEnd());
-        booking.setStatus(BookingStatus.WAITING);
-        booking.setBooker(user);
-        booking.setItem(item);
-        return booking;
-    }
-
     public Booking bookingFromBookingRequest(BookingRequest request, Integer userId) {
         Booking booking = new Booking();
         Item item = new Item();
@@ -76,10 +62,4 @@ public class BookingMapper {
 
         return dto;
     }
-
-    public List<BookingResponse> listBookingResponseFromBookings(List<Booking> bookings) {
-        return bookings.stream()
-                .map(booking -> bookingResponseFromBooking(booking, booking.getItem()))
-                .collect(Collectors.toList());
-    }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+public class BookingQuery {
+
+    private Integer userId;
+
+    private boolean owner;
+
+    @Builder.Default
+    private BookingState state = BookingState.ALL;
+
+    private Integer itemId;
+
+    private LocalDateTime rangeStart;
+
+    private LocalDateTime rangeEnd;
+
+    private BookingCursor cursor;
+
+    private long offset;
+
+    private Integer limit;
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemForBooking;
 import ru.practicum.shareit.user.dto.UserResponse;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 
 @Data
+@NoArgsConstructor
 @EqualsAndHashCode(of = "id")
 public class BookingResponse {
 
@@ -24,4 +26,17 @@ public class BookingResponse {
     private UserResponse.BookerDto booker;
 
     private ItemForBooking item;
+
+    public BookingResponse(Integer id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                           Integer bookerId, Integer itemId, String itemName) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.booker = new UserResponse.BookerDto();
+        this.booker.setId(bookerId);
+        this.item = new ItemForBooking();
+        this.item.setId(itemId);
+        this.item.setName(itemName);
+    }
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingShort {
+
+    Integer getId();
+
+    Integer getBookerId();
+
+    Integer getItemId();
+}
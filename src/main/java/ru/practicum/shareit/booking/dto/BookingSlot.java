@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public interface BookingSlot {
+
+    Integer getId();
+
+    Integer getItemId();
+
+    Integer getOwnerId();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.model;
 
 import lombok.*;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -16,9 +17,14 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "id")
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.itemAndBooker", attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "start_date", nullable = false)
@@ -27,11 +33,11 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
 
@@ -39,6 +45,13 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    @Column(nullable = false, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private BookingPhase phase;
+
+    @Version
+    private Long version;
+
     public Booking(Item item, User booker, BookingStatus status, LocalDateTime start, LocalDateTime end) {
         this.start = start;
         this.end = end;
@@ -72,4 +85,11 @@ public class Booking {
         this.item = item;
         this.booker = booker;
     }
+
+    @PrePersist
+    private void initPhase() {
+        if (phase == null) {
+            phase = BookingPhase.of(start, end, LocalDateTime.now());
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.cache.AfterTransaction;
+import ru.practicum.shareit.item.dto.ItemAvailability;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Индекс интервалов бронирований в памяти одного экземпляра приложения. Отказ в пересекающемся
+ * бронировании гарантируется только в пределах одного узла: на разных узлах могут быть созданы
+ * пересекающиеся бронирования в статусе WAITING. Такие пересечения разрешаются при подтверждении —
+ * повторной проверкой подтверждённых бронирований и ограничением bookings_approved_no_overlap в Postgres.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final Set<BookingStatus> BLOCKING = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Integer, Intervals> items = new ConcurrentHashMap<>();
+
+    public boolean overlaps(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        Intervals intervals = intervals(itemId);
+        synchronized (intervals) {
+            return intervals.overlaps(seconds(start), seconds(end));
+        }
+    }
+
+    public List<ItemAvailability> freeWindows(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        long rangeStart = Math.max(seconds(from), now());
+        long rangeEnd = seconds(to);
+        if (rangeStart >= rangeEnd) {
+            return new ArrayList<>();
+        }
+        Intervals intervals = intervals(itemId);
+        long[] busy;
+        synchronized (intervals) {
+            busy = intervals.busy(rangeStart, rangeEnd);
+        }
+        List<ItemAvailability> windows = new ArrayList<>();
+        long free = rangeStart;
+        for (int i = 0; i < busy.length; i += 2) {
+            if (busy[i] > free) {
+                windows.add(new ItemAvailability(dateTime(free), dateTime(busy[i])));
+            }
+            free = Math.max(free, busy[i + 1]);
+        }
+        if (free < rangeEnd) {
+            windows.add(new ItemAvailability(dateTime(free), dateTime(rangeEnd)));
+        }
+        return windows;
+    }
+
+    public void add(Booking booking) {
+        if (BLOCKING.contains(booking.getStatus())) {
+            Integer itemId = booking.getItem().getId();
+            int id = booking.getId();
+            long start = seconds(booking.getStart());
+            long end = seconds(booking.getEnd());
+            AfterTransaction.commit(() -> update(itemId, intervals -> intervals.add(id, start, end, now())));
+        }
+    }
+
+    public void remove(Booking booking) {
+        remove(booking.getItem().getId(), booking.getId(), booking.getStart());
+    }
+
+    public void remove(Integer itemId, int id, LocalDateTime bookingStart) {
+        long start = seconds(bookingStart);
+        AfterTransaction.commit(() -> update(itemId, intervals -> intervals.remove(id, start)));
+    }
+
+    public void evict(Integer itemId) {
+        AfterTransaction.commit(() -> items.remove(itemId));
+    }
+
+    int size(Integer itemId) {
+        Intervals intervals = items.get(itemId);
+        if (intervals == null) {
+            return 0;
+        }
+        synchronized (intervals) {
+            return intervals.size;
+        }
+    }
+
+    private Intervals intervals(Integer itemId) {
+        return items.computeIfAbsent(itemId, this::load);
+    }
+
+    private Intervals load(Integer itemId) {
+        Intervals intervals = new Intervals();
+        long now = now();
+        for (BookingInterval booking : bookingRepository.findIntervalsByItemId(itemId, BLOCKING)) {
+            long end = seconds(booking.getEnd());
+            if (end >= now) {
+                intervals.add(booking.getId(), seconds(booking.getStart()), end, now);
+            }
+        }
+        return intervals;
+    }
+
+    private void update(Integer itemId, Consumer<Intervals> action) {
+        Intervals intervals = items.get(itemId);
+        if (intervals != null) {
+            synchronized (intervals) {
+                action.accept(intervals);
+            }
+        }
+    }
+
+    private static long now() {
+        return seconds(LocalDateTime.now());
+    }
+
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static final class Intervals {
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private long[] maxEnds = new long[4];
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean overlaps(long start, long end) {
+            int count = startingBefore(end);
+            return count > 0 && maxEnds[count - 1] > start;
+        }
+
+        long[] busy(long from, long to) {
+            int first = endingAfter(from);
+            int last = startingBefore(to);
+            long[] result = new long[Math.max(0, last - first) * 2];
+            int count = 0;
+            for (int i = first; i < last; i++) {
+                if (ends[i] > from) {
+                    result[count++] = starts[i];
+                    result[count++] = ends[i];
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        void add(int id, long start, long end, long now) {
+            if (find(id, start) >= 0) {
+                return;
+            }
+            if (size == ids.length) {
+                trim(now);
+            }
+            int position = position(start, id);
+            if (size == ids.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            System.arraycopy(starts, position, starts, position + 1, size - position);
+            System.arraycopy(ends, position, ends, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            starts[position] = start;
+            ends[position] = end;
+            ids[position] = id;
+            size++;
+            recompute(position);
+        }
+
+        void remove(int id, long start) {
+            int position = find(id, start);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(starts, position + 1, starts, position, size - position - 1);
+            System.arraycopy(ends, position + 1, ends, position, size - position - 1);
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            recompute(position);
+        }
+
+        private void trim(long now) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ends[i] >= now) {
+                    starts[kept] = starts[i];
+                    ends[kept] = ends[i];
+                    ids[kept] = ids[i];
+                    kept++;
+                }
+            }
+            if (kept < size) {
+                size = kept;
+                recompute(0);
+            }
+        }
+
+        private void recompute(int from) {
+            for (int i = from; i < size; i++) {
+                maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+            }
+        }
+
+        private int find(int id, long start) {
+            int position = position(start, id);
+            return position < size && starts[position] == start && ids[position] == id ? position : -1;
+        }
+
+        private int position(long start, int id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < start || (starts[middle] == start && ids[middle] < id)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int startingBefore(long end) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < end) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int endingAfter(long from) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (maxEnds[middle] <= from) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingPhase;
+
+import java.time.LocalDateTime;
+
+/**
+ * Переводит бронирования в следующую фазу. Выборки по состоянию ищут по равенству фазы,
+ * а ещё не переведённые строки добирают из более ранних фаз по границам дат, поэтому задержка
+ * задачи не меняет результат, а только сужает долю строк, найденных по индексу фазы.
+ */
+@Slf4j
+@Component
+public class BookingPhaseJob {
+    private final BookingRepository bookingRepository;
+    private final int batchSize;
+
+    public BookingPhaseJob(BookingRepository bookingRepository,
+                           @Value("${shareit.booking.phase.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phase.interval:60000}",
+            initialDelayString = "${shareit.booking.phase.interval:60000}")
+    public void advance() {
+        LocalDateTime now = LocalDateTime.now();
+        int past = advance(BookingPhase.PAST, now);
+        int current = advance(BookingPhase.CURRENT, now);
+        if (past + current > 0) {
+            log.info("Обновлены фазы бронирований: завершено {}, началось {}", past, current);
+        }
+    }
+
+    private int advance(BookingPhase phase, LocalDateTime now) {
+        int total = 0;
+        int updated;
+        do {
+            updated = bookingRepository.advancePhase(phase, now, batchSize);
+            total += updated;
+        } while (updated == batchSize);
+        return total;
+    }
+}
@@ -1,96 +1,70 @@
 package ru.practicum.shareit.booking.service;
 
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.dto.BookingSlot;
 import ru.practicum.shareit.booking.model.Booking;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-public interface BookingRepository extends JpaRepository<Booking, Integer> {
-
-    @Query(value = "select * from bookings as booking " +
-            "left join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerId(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "right join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 and booking.end_date < current_timestamp " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerIdPastBookings(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "right join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 and it.id = ?2 and booking.start_date < current_timestamp and booking.status <> 'REJECTED' " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerIdAndItemIdPastBookings(Integer userId, Integer itemId);
-
-    @Query(value = "select * from bookings as booking " +
-            "left join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 and booking.status = ?2 " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerIdAndStatus(Integer userId, String status, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "right join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 and booking.start_date > current_timestamp " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerIdFutureBookings(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "right join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 and it.id = ?2 and booking.start_date > current_timestamp and booking.status <> 'REJECTED' " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerIdAndItemIdFutureBookings(Integer userId, Integer itemId);
-
-    @Query(value = "select * from bookings " +
-            "right join items as it on it.id = bookings.item_id " +
-            "where bookings.item_id = ?1", nativeQuery = true)
-    List<Booking> findByItemId(Integer itemId);
-
-    @Query(value = "select * from bookings " +
-            "right join items as it on it.id = bookings.item_id " +
-            "where bookings.booker_id = ?1 and it.id = ?2 and bookings.start_date < current_timestamp ", nativeQuery = true)
-    List<Booking> findByBookerIdAndItemIdPastBookings(Integer userId, Integer itemId);
-
-    @Query(value = "select * from bookings " +
-            "right join items as it on it.id = bookings.item_id " +
-            "where bookings.booker_id = ?1 and it.id = ?2 and bookings.end_date > current_timestamp", nativeQuery = true)
-    List<Booking> findByBookerIdAndItemIdFutureBookings(Integer userId, Integer itemId);
-
-    @Query(value = "select * from bookings as booking " +
-            "left join items as it on it.id = booking.item_id " +
-            "where it.owner_id = ?1 and current_timestamp between booking.start_date and booking.end_date " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByOwnerIdCurrentBookings(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "where booking.booker_id = ?1 and booking.status = ?2", nativeQuery = true)
-    List<Booking> findByBookerAndStatus(Integer userId, String status, PageRequest pageable);
-
-
-    @Query(value = "select * from bookings as booking " +
-            "where booking.booker_id = ?1 " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByBookerOrderByStartDesc(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "where booking.booker_id = ?1 and " +
-            "booking.end_date < current_timestamp " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByBookerIdPastBookings(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "where booking.booker_id = ?1 and " +
-            "booking.start_date > current_timestamp " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByBookerIdFutureBookings(Integer userId, PageRequest pageable);
-
-    @Query(value = "select * from bookings as booking " +
-            "where booking.booker_id = ?1 and " +
-            "current_timestamp between booking.start_date and booking.end_date " +
-            "order by booking.start_date desc", nativeQuery = true)
-    List<Booking> findByBookerIdCurrentBookings(Integer userId, PageRequest pageable);
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Integer>, BookingRepositoryCustom {
+
+    @Override
+    @EntityGraph("Booking.itemAndBooker")
+    Optional<Booking> findById(Integer id);
+
+    @Query(value = "select booking.id as id, booking.booker_id as bookerId, booking.item_id as itemId " +
+            "from bookings as booking " +
+            "where booking.item_id = ?1 and booking.start_date < current_timestamp and booking.status <> 'REJECTED' " +
+            "order by booking.start_date desc limit 1", nativeQuery = true)
+    Optional<BookingShort> findLastBookingByItemId(Integer itemId);
+
+    @Query(value = "select booking.id as id, booking.booker_id as bookerId, booking.item_id as itemId " +
+            "from bookings as booking " +
+            "where booking.item_id = ?1 and booking.start_date > current_timestamp and booking.status <> 'REJECTED' " +
+            "order by booking.start_date limit 1", nativeQuery = true)
+    Optional<BookingShort> findNextBookingByItemId(Integer itemId);
+
+    @Query(value = "select ranked.id as id, ranked.booker_id as bookerId, ranked.item_id as itemId from (" +
+            "select booking.id, booking.booker_id, booking.item_id, " +
+            "row_number() over (partition by booking.item_id order by booking.start_date desc) as row_num " +
+            "from bookings as booking " +
+            "where booking.item_id in (?1) and booking.start_date < current_timestamp and booking.status <> 'REJECTED'" +
+            ") as ranked where ranked.row_num = 1", nativeQuery = true)
+    List<BookingShort> findLastBookingsByItemIds(Collection<Integer> itemIds);
+
+    @Query(value = "select ranked.id as id, ranked.booker_id as bookerId, ranked.item_id as itemId from (" +
+            "select booking.id, booking.booker_id, booking.item_id, " +
+            "row_number() over (partition by booking.item_id order by booking.start_date) as row_num " +
+            "from bookings as booking " +
+            "where booking.item_id in (?1) and booking.start_date > current_timestamp and booking.status <> 'REJECTED'" +
+            ") as ranked where ranked.row_num = 1", nativeQuery = true)
+    List<BookingShort> findNextBookingsByItemIds(Collection<Integer> itemIds);
+
+    @Query("select booking.id as id, booking.start as start, booking.end as end from Booking booking " +
+            "where booking.item.id = ?1 and booking.status in ?2")
+    List<BookingInterval> findIntervalsByItemId(Integer itemId, Collection<BookingStatus> statuses);
+
+    @Query("select case when count(booking) > 0 then true else false end from Booking booking " +
+            "where booking.item.id = ?1 and booking.status = ?2 and booking.start < ?4 and booking.end > ?3 " +
+            "and booking.id <> ?5")
+    boolean existsOverlap(Integer itemId, BookingStatus status, LocalDateTime start, LocalDateTime end, Integer excludedId);
+
+    @Query("select booking.id as id, item.id as itemId, item.owner.id as ownerId, booking.status as status, " +
+            "booking.start as start, booking.end as end " +
+            "from Booking booking join booking.item item where booking.id in ?1")
+    List<BookingSlot> findSlotsByIds(Collection<Integer> ids);
+
+    @Query("select booking.id as id, item.id as itemId, item.owner.id as ownerId, booking.status as status, " +
+            "booking.start as start, booking.end as end " +
+            "from Booking booking join booking.item item " +
+            "where item.id in ?1 and booking.status = ?2 and booking.start < ?4 and booking.end > ?3")
+    List<BookingSlot> findSlotsByItemIds(Collection<Integer> itemIds, BookingStatus status, LocalDateTime from, LocalDateTime to);
 }
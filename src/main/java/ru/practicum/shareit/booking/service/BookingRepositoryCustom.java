@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    List<BookingResponse> findBookingResponses(BookingQuery query);
+
+    Integer insertIfBookable(Integer bookerId, Integer itemId, LocalDateTime start, LocalDateTime end);
+
+    int decideWaiting(Collection<Integer> approvedIds, Collection<Integer> rejectedIds);
+
+    int advancePhase(BookingPhase phase, LocalDateTime now, int limit);
+}
@@ -0,0 +1,204 @@
+package ru.practicum.shareit.booking.service;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private static final String SELECT_RESPONSE = "select new ru.practicum.shareit.booking.dto.BookingResponse(" +
+            "b.id, b.start, b.end, b.status, b.booker.id, i.id, i.name) " +
+            "from Booking b join b.item i";
+    private static final String UPDATE_WAITING = "update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = :waiting";
+    private static final String INSERT_IF_BOOKABLE = "insert into bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+            "select :id, :start, :end, item.id, booker.id, 'WAITING', 'FUTURE' " +
+            "from items as item join users as booker on booker.id = :bookerId " +
+            "where item.id = :itemId and item.available = true and item.owner_id <> :bookerId";
+
+    private static final String ADVANCE_TO_PAST = "update bookings set phase = 'PAST' " +
+            "where phase in ('FUTURE', 'CURRENT') and id in (" +
+            "select id from bookings where phase in ('FUTURE', 'CURRENT') and end_date < :now limit :limit)";
+    private static final String ADVANCE_TO_CURRENT = "update bookings set phase = 'CURRENT' " +
+            "where phase = 'FUTURE' and id in (" +
+            "select id from bookings where phase = 'FUTURE' and start_date <= :now and end_date >= :now limit :limit)";
+
+    private final Map<String, String> statements = new ConcurrentHashMap<>();
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BookingRepositoryImpl(DataSource dataSource) {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<BookingResponse> findBookingResponses(BookingQuery bookingQuery) {
+        TypedQuery<BookingResponse> query = entityManager.createQuery(statement(bookingQuery), BookingResponse.class)
+                .setFirstResult((int) bookingQuery.getOffset());
+
+        if (bookingQuery.getLimit() != null) {
+            query.setMaxResults(bookingQuery.getLimit());
+        }
+        if (bookingQuery.getUserId() != null) {
+            query.setParameter("userId", bookingQuery.getUserId());
+        }
+        BookingPhase phase = bookingQuery.getState().getPhase();
+        if (phase != null) {
+            query.setParameter("phase", phase);
+            if (phase != BookingPhase.FUTURE) {
+                query.setParameter("earlierPhases", earlierPhases(phase));
+            }
+        }
+        if (bookingQuery.getState().getStatus() != null) {
+            query.setParameter("status", bookingQuery.getState().getStatus());
+        }
+        if (bookingQuery.getItemId() != null) {
+            query.setParameter("itemId", bookingQuery.getItemId());
+        }
+        if (bookingQuery.getRangeStart() != null) {
+            query.setParameter("rangeStart", bookingQuery.getRangeStart());
+        }
+        if (bookingQuery.getRangeEnd() != null) {
+            query.setParameter("rangeEnd", bookingQuery.getRangeEnd());
+        }
+        if (bookingQuery.getCursor() != null) {
+            query.setParameter("cursorStart", bookingQuery.getCursor().getStart());
+            query.setParameter("cursorId", bookingQuery.getCursor().getId());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional
+    public Integer insertIfBookable(Integer bookerId, Integer itemId, LocalDateTime start, LocalDateTime end) {
+        entityManager.flush();
+        Integer id = nextId();
+        int rows = jdbcTemplate.update(INSERT_IF_BOOKABLE, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end))
+                .addValue("itemId", itemId)
+                .addValue("bookerId", bookerId));
+        return rows == 0 ? null : id;
+    }
+
+    @Override
+    @Transactional
+    public int decideWaiting(Collection<Integer> approvedIds, Collection<Integer> rejectedIds) {
+        return updateWaiting(approvedIds, BookingStatus.APPROVED) + updateWaiting(rejectedIds, BookingStatus.REJECTED);
+    }
+
+    @Override
+    @Transactional
+    public int advancePhase(BookingPhase phase, LocalDateTime now, int limit) {
+        entityManager.flush();
+        String statement = phase == BookingPhase.PAST ? ADVANCE_TO_PAST : ADVANCE_TO_CURRENT;
+        return jdbcTemplate.update(statement, new MapSqlParameterSource()
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("limit", limit));
+    }
+
+    String statement(BookingQuery bookingQuery) {
+        return statements.computeIfAbsent(shape(bookingQuery), key -> build(bookingQuery));
+    }
+
+    int cachedShapes() {
+        return statements.size();
+    }
+
+    private static String shape(BookingQuery bookingQuery) {
+        return (bookingQuery.getUserId() == null ? "-" : bookingQuery.isOwner() ? "O" : "B") +
+                bookingQuery.getState().ordinal() +
+                (bookingQuery.getItemId() != null ? "I" : "-") +
+                (bookingQuery.getRangeStart() != null ? "S" : "-") +
+                (bookingQuery.getRangeEnd() != null ? "E" : "-") +
+                (bookingQuery.getCursor() != null ? "C" : "-");
+    }
+
+    private static String build(BookingQuery bookingQuery) {
+        List<String> conditions = new ArrayList<>();
+
+        if (bookingQuery.getUserId() != null) {
+            conditions.add(bookingQuery.isOwner() ? "i.owner.id = :userId" : "b.booker.id = :userId");
+        }
+        if (bookingQuery.getState().getPhase() != null) {
+            conditions.add(phaseCondition(bookingQuery.getState().getPhase()));
+        }
+        if (bookingQuery.getState().getStatus() != null) {
+            conditions.add("b.status = :status");
+        }
+        if (bookingQuery.getItemId() != null) {
+            conditions.add("b.item.id = :itemId");
+        }
+        if (bookingQuery.getRangeStart() != null) {
+            conditions.add("b.end > :rangeStart");
+        }
+        if (bookingQuery.getRangeEnd() != null) {
+            conditions.add("b.start < :rangeEnd");
+        }
+        if (bookingQuery.getCursor() != null) {
+            conditions.add("(b.start, b.id) < (:cursorStart, :cursorId)");
+        }
+
+        StringBuilder jpql = new StringBuilder(SELECT_RESPONSE);
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+        return jpql.append(" order by b.start desc, b.id desc").toString();
+    }
+
+    private static String phaseCondition(BookingPhase phase) {
+        switch (phase) {
+            case PAST:
+                return "(b.phase = :phase or (b.phase in :earlierPhases and b.end < current_timestamp))";
+            case FUTURE:
+                return "b.phase = :phase and b.start > current_timestamp";
+            default:
+                return "((b.phase = :phase and b.end >= current_timestamp) " +
+                        "or (b.phase in :earlierPhases and current_timestamp between b.start and b.end))";
+        }
+    }
+
+    private static List<BookingPhase> earlierPhases(BookingPhase phase) {
+        return Arrays.asList(BookingPhase.values()).subList(0, phase.ordinal());
+    }
+
+    private Integer nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        return (Integer) session.getFactory().getMetamodel()
+                .entityPersister(Booking.class)
+                .getIdentifierGenerator()
+                .generate(session, null);
+    }
+
+    private int updateWaiting(Collection<Integer> ids, BookingStatus status) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(UPDATE_WAITING)
+                .setParameter("status", status)
+                .setParameter("waiting", BookingStatus.WAITING)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
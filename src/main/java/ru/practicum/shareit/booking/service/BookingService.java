@@ -1,15 +1,25 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingResponse;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingService {
     Booking createBooking(Booking booking);
 
-    Booking approveOrReject(Integer userId, Integer bookingId, String solution);
+    Booking approveOrReject(Integer bookingId, Integer userId, String solution, Long expectedVersion);
+
+    List<BookingBatchResult> approveOrRejectAll(Integer userId, List<BookingDecision> decisions);
 
     Booking getBooking(Integer bookingId, Integer userId);
 
-    List<Booking> getBookingsByUserId(Integer userId, String state, boolean isOwner, Integer from, Integer size);
+    List<BookingResponse> getBookingsByUserId(Integer userId, String state, boolean isOwner, Integer from, Integer size);
+
+    List<BookingResponse> getBookingsByUserIdAfter(Integer userId, String state, boolean isOwner, String cursor, int size);
+
+    Stream<List<BookingResponse>> streamBookingsByUserId(Integer userId, String state, boolean isOwner);
 }
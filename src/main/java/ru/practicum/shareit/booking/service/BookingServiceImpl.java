@@ -1,39 +1,65 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.BookingSlot;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exception.AccessibilityErrorException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemRepository;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.version.EntityTags;
+import ru.practicum.shareit.version.OptimisticRetry;
 import ru.practicum.shareit.user.service.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
-
-    private final BookingMapper bookingMapper;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemLocks itemLocks;
+    private final OptimisticRetry optimisticRetry;
 
     public PageRequest pagination(Integer from, Integer size) {
         if (from == null) {
             from = 0;
         }
         if (size == null) {
-            size = bookingRepository.findAll().size();
+            size = DEFAULT_PAGE_SIZE;
         }
 
         if ((from < 0 || size < 0) || (size == 0)) {
@@ -44,15 +70,8 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public Booking createBooking(Booking newBooking) {
-        User user = userRepository.findById(newBooking.getBooker().getId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-
-        Item item = itemRepository.findById(newBooking.getItem().getId())
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
-
-        if (item.getAvailable().equals(false)) {
-            throw new AccessibilityErrorException("Вещь не доступна");
-        }
+        Integer bookerId = newBooking.getBooker().getId();
+        Integer itemId = newBooking.getItem().getId();
         LocalDateTime start = newBooking.getStart();
         LocalDateTime end = newBooking.getEnd();
 
@@ -60,29 +79,89 @@ public class BookingServiceImpl implements BookingService {
             throw new AccessibilityErrorException("Не верные даты");
         }
 
-        if (newBooking.getBooker().getId().equals(item.getOwner().getId())) {
-            throw new NotFoundException("Нельзя забронировать свою вещь");
-        }
+        return itemLocks.withLock(itemId, () -> {
+            if (bookingIntervalIndex.overlaps(itemId, start, end)) {
+                throw new AccessibilityErrorException("Вещь уже забронирована на эти даты");
+            }
+            Integer id = bookingRepository.insertIfBookable(bookerId, itemId, start, end);
+            if (id == null) {
+                throw bookingRejection(bookerId, itemId);
+            }
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+            Booking booking = new Booking(id, start, end, BookingStatus.WAITING, newBooking.getBooker(), item);
+            booking.setPhase(BookingPhase.FUTURE);
+            bookingIntervalIndex.add(booking);
+            return booking;
+        });
+    }
 
-        return bookingRepository.save(bookingMapper.bookingForCreate(newBooking, user, item));
+    @Override
+    public Booking approveOrReject(Integer bookingId, Integer userId, String solution, Long expectedVersion) {
+        return optimisticRetry.run(() -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+            Item item = booking.getItem();
+            if (!item.getOwner().getId().equals(userId)) {
+                throw new NotFoundException("Пользователь не является владельцем вещи");
+            }
+            EntityTags.check(expectedVersion, booking.getVersion());
+            if (!booking.getStatus().toString().equals("WAITING")) {
+                throw new AccessibilityErrorException("Статус нельзя изменить");
+            }
+            if (!solution.equals("true")) {
+                booking.setStatus(BookingStatus.REJECTED);
+                Booking saved = bookingRepository.save(booking);
+                bookingIntervalIndex.remove(saved);
+                return saved;
+            }
+            return itemLocks.withLock(item.getId(), () -> {
+                if (bookingRepository.existsOverlap(item.getId(), BookingStatus.APPROVED, booking.getStart(), booking.getEnd(), bookingId)) {
+                    throw new AccessibilityErrorException("Вещь уже забронирована на эти даты");
+                }
+                booking.setStatus(BookingStatus.APPROVED);
+                try {
+                    return bookingRepository.save(booking);
+                } catch (DataIntegrityViolationException e) {
+                    throw new AccessibilityErrorException("Вещь уже забронирована на эти даты");
+                }
+            });
+        });
     }
 
     @Override
-    public Booking approveOrReject(Integer bookingId, Integer userId, String solution) {
-        Booking booking = bookingRepository.getReferenceById(bookingId);
-        Item item = itemRepository.getReferenceById(booking.getItem().getId());
-        if (!item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Пользователь не является владельцем вещи");
+    public List<BookingBatchResult> approveOrRejectAll(Integer userId, List<BookingDecision> decisions) {
+        if (decisions.size() > MAX_BATCH_SIZE) {
+            throw new ValidateException("Нельзя обработать больше " + MAX_BATCH_SIZE + " бронирований за один запрос");
         }
-        if (!booking.getStatus().toString().equals("WAITING")) {
-            throw new AccessibilityErrorException("Статус нельзя изменить");
+        List<BookingBatchResult> results = new ArrayList<>(decisions.size());
+        Set<Integer> ids = new HashSet<>();
+        for (BookingDecision decision : decisions) {
+            Integer bookingId = decision == null ? null : decision.getBookingId();
+            String error = null;
+            if (bookingId == null || decision.getApproved() == null) {
+                error = "Не указано бронирование или решение";
+            } else if (!ids.add(bookingId)) {
+                error = "Бронирование указано повторно";
+            }
+            results.add(BookingBatchResult.builder().bookingId(bookingId).error(error).build());
         }
-        if (solution.equals("true")) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        if (ids.isEmpty()) {
+            return results;
         }
-        return bookingRepository.save(booking);
+
+        Map<Integer, BookingSlot> slots = slotsByIds(ids);
+        Set<Integer> itemIds = slots.values().stream()
+                .filter(slot -> slot.getOwnerId().equals(userId))
+                .map(BookingSlot::getItemId)
+                .collect(Collectors.toSet());
+        itemLocks.withLocks(itemIds, () -> {
+            decide(userId, decisions, results, slots);
+            return results;
+        });
+        log.info("Пакетно обработано бронирований {} из {} для пользователя {}",
+                results.stream().filter(result -> result.getError() == null).count(), decisions.size(), userId);
+        return results;
     }
 
     @Override
@@ -97,55 +176,170 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<Booking> getBookingsByUserId(Integer userId, String state, boolean isOwner, Integer from, Integer size) {
-        List<Booking> bookings = new ArrayList<>();
-        BookingStatus status = BookingStatus.from(state);
-        if (status == null) {
-            throw new AccessibilityErrorException("Unknown state: " + state);
-        } else {
-            PageRequest pageable = pagination(from, size);
-
-            if (isOwner) {
-                switch (status) {
-                    case ALL:
-                        bookings = bookingRepository.findByOwnerId(userId, pageable);
-                        break;
-                    case PAST:
-                        bookings = bookingRepository.findByOwnerIdPastBookings(userId, pageable);
-                        break;
-                    case WAITING:
-                    case REJECTED:
-                        bookings = bookingRepository.findByOwnerIdAndStatus(userId, state, pageable);
-                        break;
-                    case FUTURE:
-                        bookings = bookingRepository.findByOwnerIdFutureBookings(userId, pageable);
-                        break;
-                    case CURRENT:
-                        bookings = bookingRepository.findByOwnerIdCurrentBookings(userId, pageable);
-                }
+    public List<BookingResponse> getBookingsByUserId(Integer userId, String state, boolean isOwner, Integer from, Integer size) {
+        BookingState status = parseState(state);
+        PageRequest pageable = pagination(from, size);
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userId)
+                .owner(isOwner)
+                .state(status)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .build());
+        if (bookings.isEmpty()) {
+            throw new NotFoundException("Бронирований не найдено");
+        }
+        return bookings;
+    }
+
+    @Override
+    public List<BookingResponse> getBookingsByUserIdAfter(Integer userId, String state, boolean isOwner, String cursor, int size) {
+        BookingState status = parseState(state);
+        if (size <= 0) {
+            throw new ValidateException("Проверьте указанные параметры");
+        }
+        return bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userId)
+                .owner(isOwner)
+                .state(status)
+                .cursor(BookingCursor.decode(cursor))
+                .limit(size)
+                .build());
+    }
+
+    @Override
+    public Stream<List<BookingResponse>> streamBookingsByUserId(Integer userId, String state, boolean isOwner) {
+        BookingQuery query = BookingQuery.builder()
+                .userId(userId)
+                .owner(isOwner)
+                .state(parseState(state))
+                .limit(STREAM_CHUNK_SIZE)
+                .build();
+        return Stream.iterate(bookingRepository.findBookingResponses(query),
+                chunk -> !chunk.isEmpty(),
+                chunk -> chunk.size() < STREAM_CHUNK_SIZE ? List.of() : bookingRepository.findBookingResponses(query.toBuilder()
+                        .cursor(BookingCursor.of(chunk.get(chunk.size() - 1)))
+                        .build()));
+    }
+
+    private void decide(Integer userId, List<BookingDecision> decisions, List<BookingBatchResult> results,
+                        Map<Integer, BookingSlot> slots) {
+        Map<Integer, List<BookingSlot>> approved = approvedSlots(decisions, slots);
+        List<Integer> approvedIds = new ArrayList<>();
+        List<Integer> rejectedIds = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            BookingBatchResult result = results.get(i);
+            if (result.getError() != null) {
+                continue;
+            }
+            BookingSlot slot = slots.get(result.getBookingId());
+            if (slot == null) {
+                result.setError("Бронирование не найдено");
+            } else if (!slot.getOwnerId().equals(userId)) {
+                result.setError("Пользователь не является владельцем вещи");
+            } else if (slot.getStatus() != BookingStatus.WAITING) {
+                result.setError("Статус нельзя изменить");
+            } else if (!decisions.get(i).getApproved()) {
+                result.setStatus(BookingStatus.REJECTED);
+                rejectedIds.add(slot.getId());
+            } else if (overlaps(slot, approved.get(slot.getItemId()))) {
+                result.setError("Вещь уже забронирована на эти даты");
             } else {
-                switch (status) {
-                    case ALL:
-                        bookings = bookingRepository.findByBookerOrderByStartDesc(userId, pageable);
-                        break;
-                    case PAST:
-                        bookings = bookingRepository.findByBookerIdPastBookings(userId, pageable);
-                        break;
-                    case WAITING:
-                    case REJECTED:
-                        bookings = bookingRepository.findByBookerAndStatus(userId, state, pageable);
-                        break;
-                    case FUTURE:
-                        bookings = bookingRepository.findByBookerIdFutureBookings(userId, pageable);
-                        break;
-                    case CURRENT:
-                        bookings = bookingRepository.findByBookerIdCurrentBookings(userId, pageable);
+                result.setStatus(BookingStatus.APPROVED);
+                approved.get(slot.getItemId()).add(slot);
+                approvedIds.add(slot.getId());
+            }
+        }
+        if (approvedIds.isEmpty() && rejectedIds.isEmpty()) {
+            return;
+        }
+
+        int updated;
+        try {
+            updated = bookingRepository.decideWaiting(approvedIds, rejectedIds);
+        } catch (DataIntegrityViolationException e) {
+            throw new AccessibilityErrorException("Вещь уже забронирована на эти даты");
+        }
+        if (updated != approvedIds.size() + rejectedIds.size()) {
+            Set<Integer> decided = new HashSet<>(approvedIds);
+            decided.addAll(rejectedIds);
+            Map<Integer, BookingSlot> current = slotsByIds(decided);
+            for (BookingBatchResult result : results) {
+                if (result.getStatus() == null) {
+                    continue;
+                }
+                BookingSlot slot = current.get(result.getBookingId());
+                if (slot == null) {
+                    result.setStatus(null);
+                    result.setError("Бронирование не найдено");
+                } else if (slot.getStatus() != result.getStatus()) {
+                    result.setStatus(null);
+                    result.setError("Статус нельзя изменить");
                 }
             }
         }
-        if (bookings.isEmpty()) {
-            throw new NotFoundException("Бронирований не найдено");
+        for (BookingBatchResult result : results) {
+            if (result.getStatus() == BookingStatus.REJECTED) {
+                BookingSlot slot = slots.get(result.getBookingId());
+                bookingIntervalIndex.remove(slot.getItemId(), slot.getId(), slot.getStart());
+            }
         }
-        return bookings;
+    }
+
+    private Map<Integer, List<BookingSlot>> approvedSlots(List<BookingDecision> decisions, Map<Integer, BookingSlot> slots) {
+        List<BookingSlot> candidates = decisions.stream()
+                .filter(decision -> decision != null && Boolean.TRUE.equals(decision.getApproved()))
+                .map(decision -> slots.get(decision.getBookingId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Integer, List<BookingSlot>> approved = new HashMap<>();
+        if (candidates.isEmpty()) {
+            return approved;
+        }
+        candidates.forEach(slot -> approved.put(slot.getItemId(), new ArrayList<>()));
+        LocalDateTime from = candidates.stream().map(BookingSlot::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.stream().map(BookingSlot::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        for (BookingSlot slot : bookingRepository.findSlotsByItemIds(approved.keySet(), BookingStatus.APPROVED, from, to)) {
+            approved.get(slot.getItemId()).add(slot);
+        }
+        return approved;
+    }
+
+    private Map<Integer, BookingSlot> slotsByIds(Collection<Integer> ids) {
+        return bookingRepository.findSlotsByIds(ids).stream()
+                .collect(Collectors.toMap(BookingSlot::getId, Function.identity()));
+    }
+
+    private static boolean overlaps(BookingSlot booking, List<BookingSlot> approved) {
+        for (BookingSlot other : approved) {
+            if (!other.getId().equals(booking.getId())
+                    && other.getStart().isBefore(booking.getEnd()) && booking.getStart().isBefore(other.getEnd())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RuntimeException bookingRejection(Integer bookerId, Integer itemId) {
+        if (!userRepository.existsById(bookerId)) {
+            return new NotFoundException("Пользователь не найден");
+        }
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null) {
+            return new NotFoundException("Вещь не найдена");
+        }
+        if (item.getAvailable().equals(false)) {
+            return new AccessibilityErrorException("Вещь не доступна");
+        }
+        return new NotFoundException("Нельзя забронировать свою вещь");
+    }
+
+    private BookingState parseState(String state) {
+        BookingState status = BookingState.from(state);
+        if (status == null) {
+            throw new AccessibilityErrorException("Unknown state: " + state);
+        }
+        return status;
     }
 }
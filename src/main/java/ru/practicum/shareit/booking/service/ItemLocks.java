@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Блокировки вещей внутри одного экземпляра приложения. Между узлами они ничего не упорядочивают,
+ * поэтому пересечения между узлами ловит только ограничение на подтверждённые бронирования в базе.
+ */
+@Component
+public class ItemLocks {
+    private final Lock[] stripes;
+
+    public ItemLocks(@Value("${shareit.booking.lock-stripes:1024}") int stripes) {
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(Integer itemId, Supplier<T> action) {
+        Lock lock = stripes[stripe(itemId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withLocks(Collection<Integer> itemIds, Supplier<T> action) {
+        int[] locked = itemIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        int count = 0;
+        try {
+            for (int stripe : locked) {
+                stripes[stripe].lock();
+                count++;
+            }
+            return action.get();
+        } finally {
+            for (int i = count - 1; i >= 0; i--) {
+                stripes[locked[i]].unlock();
+            }
+        }
+    }
+
+    private int stripe(Integer itemId) {
+        return Math.floorMod(Integer.hashCode(itemId) * 0x9E3779B9, stripes.length);
+    }
+}
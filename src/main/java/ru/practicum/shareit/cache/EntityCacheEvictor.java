@@ -0,0 +1,16 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evict(Class<?> entityClass, Object id) {
+        AfterTransaction.completion(() -> entityManagerFactory.getCache().evict(entityClass, id));
+    }
+}
@@ -25,4 +25,16 @@ public class ErrorHandler {
     public ErrorResponse accessibilityErrorException(final AccessibilityErrorException e) {
         return new ErrorResponse(e.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse conflictException(final ConflictException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse preconditionFailedException(final PreconditionFailedException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+@Repository
+public class ExportRepository {
+    private static final String OWNER_BOOKINGS = "select b.id, b.start_date, b.end_date, b.status, b.booker_id, " +
+            "i.id as item_id, i.name as item_name " +
+            "from bookings b join items i on i.id = b.item_id " +
+            "where i.owner_id = ? " +
+            "order by b.start_date desc, b.id desc";
+    private static final String OWNER_ITEMS = "select i.id, i.name, i.description, i.available, i.request_id " +
+            "from items i " +
+            "where i.owner_id = ? " +
+            "order by i.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportRepository(DataSource dataSource, @Value("${shareit.export.fetch-size:1000}") int fetchSize) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void forEachOwnerBooking(Integer ownerId, Consumer<Booking> action) {
+        jdbcTemplate.query(OWNER_BOOKINGS, rs -> {
+            action.accept(booking(rs));
+        }, ownerId);
+    }
+
+    public void forEachOwnerItem(Integer ownerId, Consumer<Item> action) {
+        jdbcTemplate.query(OWNER_ITEMS, rs -> {
+            action.accept(item(rs));
+        }, ownerId);
+    }
+
+    private static Booking booking(ResultSet rs) throws SQLException {
+        Booking booking = new Booking();
+        booking.setId(rs.getInt("id"));
+        booking.setStart(rs.getTimestamp("start_date").toLocalDateTime());
+        booking.setEnd(rs.getTimestamp("end_date").toLocalDateTime());
+        booking.setStatus(BookingStatus.valueOf(rs.getString("status")));
+        User booker = new User();
+        booker.setId(rs.getInt("booker_id"));
+        booking.setBooker(booker);
+        Item item = new Item();
+        item.setId(rs.getInt("item_id"));
+        item.setName(rs.getString("item_name"));
+        booking.setItem(item);
+        return booking;
+    }
+
+    private static Item item(ResultSet rs) throws SQLException {
+        Item item = new Item();
+        item.setId(rs.getInt("id"));
+        item.setName(rs.getString("name"));
+        item.setDescription(rs.getString("description"));
+        item.setAvailable(rs.getBoolean("available"));
+        int requestId = rs.getInt("request_id");
+        if (!rs.wasNull()) {
+            Request request = new Request();
+            request.setId(requestId);
+            item.setRequest(request);
+        }
+        return item;
+    }
+}
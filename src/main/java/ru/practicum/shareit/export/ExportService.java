@@ -0,0 +1,125 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+public class ExportService {
+    private static final List<String> BOOKING_COLUMNS = List.of("id", "start", "end", "status", "bookerId", "itemId", "itemName");
+    private static final List<String> ITEM_COLUMNS = List.of("id", "name", "description", "available", "requestId");
+
+    private final ExportRepository exportRepository;
+    private final UserIdRegistry userIdRegistry;
+    private final BookingMapper bookingMapper;
+    private final ItemMapper itemMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExportService(ExportRepository exportRepository, UserIdRegistry userIdRegistry, BookingMapper bookingMapper,
+                         ItemMapper itemMapper, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.exportRepository = exportRepository;
+        this.userIdRegistry = userIdRegistry;
+        this.bookingMapper = bookingMapper;
+        this.itemMapper = itemMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public ExportFormat parseFormat(String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        if (exportFormat == null) {
+            throw new ValidateException("Неизвестный формат выгрузки: " + format);
+        }
+        return exportFormat;
+    }
+
+    public StreamingResponseBody exportOwnerBookings(Integer ownerId, ExportFormat format) {
+        userIdRegistry.check(ownerId);
+        return export(format, BOOKING_COLUMNS,
+                action -> exportRepository.forEachOwnerBooking(ownerId,
+                        booking -> action.accept(bookingMapper.bookingForResponse(booking))),
+                ExportService::bookingColumns);
+    }
+
+    public StreamingResponseBody exportOwnerItems(Integer ownerId, ExportFormat format) {
+        userIdRegistry.check(ownerId);
+        return export(format, ITEM_COLUMNS,
+                action -> exportRepository.forEachOwnerItem(ownerId,
+                        item -> action.accept(itemMapper.itemForCreate(item))),
+                ExportService::itemColumns);
+    }
+
+    private <T> StreamingResponseBody export(ExportFormat format, List<String> header, Consumer<Consumer<T>> rows,
+                                             Function<T, List<Object>> columns) {
+        return output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            if (format == ExportFormat.CSV) {
+                writeCsv(writer, header);
+            }
+            transactionTemplate.executeWithoutResult(status -> rows.accept(row -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, columns.apply(row));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.flush();
+        };
+    }
+
+    private static List<Object> bookingColumns(BookingResponse booking) {
+        return Arrays.asList(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getBooker().getId(), booking.getItem().getId(), booking.getItem().getName());
+    }
+
+    private static List<Object> itemColumns(ItemResponse item) {
+        return Arrays.asList(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequestId());
+    }
+
+    private static void writeCsv(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(escape(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -2,18 +2,28 @@ package ru.practicum.shareit.item.contoller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comments.dto.CommentMapper;
 import ru.practicum.shareit.comments.dto.CommentRequest;
 import ru.practicum.shareit.comments.dto.CommentResponse;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportService;
+import ru.practicum.shareit.item.dto.ItemAvailability;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemRequest;
 import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.dto.ItemUpdateRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.version.EntityTags;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -24,12 +34,27 @@ public class ItemController {
     private final ItemServiceImpl itemService;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final ExportService exportService;
 
     @GetMapping("/{id}")
-    public ItemResponse getItemById(@PathVariable Integer id, @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
+    public ResponseEntity<ItemResponse> getItemById(@PathVariable Integer id, @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
         log.info("Пришёл GET запрос /items/{} от пользователя id {}", id, userId);
-        ItemResponse response = itemMapper.itemResponseFromItem(itemService.getItemById(id, userId));
+        Item item = itemService.getItemById(id, userId);
+        ItemResponse response = itemMapper.itemResponseFromItem(item);
         log.info("Отправлен ответ getItemById /items/{} с телом {}", id, response);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.format(item.getVersion()))
+                .body(response);
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<ItemAvailability> getAvailability(@PathVariable Integer id,
+                                                  @RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Пришёл GET запрос /items/{}/availability от пользователя id {} с {} по {}", id, userId, from, to);
+        List<ItemAvailability> response = itemService.getAvailability(id, from, to);
+        log.info("Отправлен ответ getAvailability /items/{}/availability с телом {}", id, response);
         return response;
     }
 
@@ -50,13 +75,36 @@ public class ItemController {
         return itemMapper.itemForCreate(response);
     }
 
+    @PostMapping("/batch")
+    public List<ItemBatchResult> createItems(@RequestBody List<ItemRequest> items,
+                                             @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
+        log.info("Пришёл POST запрос /items/batch от пользователя id {} с {} вещами", userId, items.size());
+        List<ItemBatchResult> response = itemService.createItems(userId, items);
+        log.info("Отправлен ответ createItems /items/batch с {} результатами", response.size());
+        return response;
+    }
+
     @PatchMapping("/{id}")
-    public ItemResponse updateItem(@PathVariable Integer id, @RequestBody ItemUpdateRequest item,
-                                   @RequestHeader(value = "X-Sharer-User-Id") Integer userId) {
-        log.info("Пришёл PATCH запрос /items/{} от пользователя id {} с телом {}", id, userId, item);
-        ItemResponse response = itemMapper.itemResponseFromItem(itemService.updateItem(itemMapper.itemFromUpdate(item, userId, id)));
+    public ResponseEntity<ItemResponse> updateItem(@PathVariable Integer id, @RequestBody ItemUpdateRequest item,
+                                                   @RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Пришёл PATCH запрос /items/{} от пользователя id {} с телом {} и If-Match {}", id, userId, item, ifMatch);
+        Item updated = itemService.updateItem(itemMapper.itemFromUpdate(item, userId, id), EntityTags.parse(ifMatch));
+        ItemResponse response = itemMapper.itemResponseFromItem(updated);
         log.info("Отправлен ответ updateItem /items/{} с телом {}", id, response);
-        return response;
+        return ResponseEntity.ok()
+                .eTag(EntityTags.format(updated.getVersion()))
+                .body(response);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItemsByUserId(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                                     @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("Пришёл GET запрос /items/export от пользователя id {} в формате {}", userId, format);
+        ExportFormat exportFormat = exportService.parseFormat(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(exportService.exportOwnerItems(userId, exportFormat));
     }
 
     @GetMapping("/search")
@@ -64,7 +112,7 @@ public class ItemController {
                                                 @RequestHeader(value = "X-Sharer-User-Id") Integer userId,
                                                 @RequestParam(required = false) Integer from, @RequestParam(required = false) Integer size) {
         log.info("Пришёл GET запрос /items/search от пользователя {} с параметром {}", userId, text);
-        List<ItemResponse> response = itemMapper.itemsForResponse(itemService.searchBySubstring(text, text, from, size));
+        List<ItemResponse> response = itemMapper.itemsForResponse(itemService.searchBySubstring(text, from, size));
         log.info("Отправлен ответ searchBySubstring /items/search с телом {}", response);
         return response;
     }
@@ -2,7 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.comments.dto.CommentResponse;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
@@ -85,7 +85,7 @@ public class ItemMapper {
         return dto;
     }
 
-    public ItemResponse itemForOwner(Item item, List<CommentResponse> comments, List<Booking> bookings, List<Booking> pastBookings, List<Booking> futureBookings) {
+    public ItemResponse itemForOwner(Item item, List<CommentResponse> comments, BookingShort lastBooking, BookingShort nextBooking) {
         ItemResponse dto = new ItemResponse();
         dto.setId(item.getId());
         dto.setName(item.getName());
@@ -93,28 +93,30 @@ public class ItemMapper {
         dto.setAvailable(item.getAvailable());
         dto.setComments(comments);
 
-        if (bookings.isEmpty()) {
-            dto.setLastBooking(null);
-            dto.setNextBooking(null);
-            return dto;
+        if (lastBooking != null) {
+            dto.setLastBooking(new ItemResponse.ItemForOwner(lastBooking.getId(), lastBooking.getBookerId()));
         }
-
-        if (!pastBookings.isEmpty()) {
-            Booking lastBooking = pastBookings.get(0);
-            ItemResponse.ItemForOwner lastBookingDto = new ItemResponse.ItemForOwner();
-            lastBookingDto.setId(lastBooking.getId());
-            lastBookingDto.setBookerId(lastBooking.getBooker().getId());
-            dto.setLastBooking(lastBookingDto);
+        if (nextBooking != null) {
+            dto.setNextBooking(new ItemResponse.ItemForOwner(nextBooking.getId(), nextBooking.getBookerId()));
         }
+        return dto;
+    }
+
+    public ItemResponse withComments(ItemResponse item, List<CommentResponse> comments) {
+        item.setComments(comments);
+        return item;
+    }
+
+    public ItemResponse withOwnerDetails(ItemResponse item, List<CommentResponse> comments, BookingShort lastBooking, BookingShort nextBooking) {
+        item.setComments(comments);
 
-        if (!futureBookings.isEmpty()) {
-            Booking nextBooking = futureBookings.get(futureBookings.size() - 1);
-            ItemResponse.ItemForOwner nextBookingDto = new ItemResponse.ItemForOwner();
-            nextBookingDto.setId(nextBooking.getId());
-            nextBookingDto.setBookerId(nextBooking.getBooker().getId());
-            dto.setNextBooking(nextBookingDto);
+        if (lastBooking != null) {
+            item.setLastBooking(new ItemResponse.ItemForOwner(lastBooking.getId(), lastBooking.getBookerId()));
         }
-        return dto;
+        if (nextBooking != null) {
+            item.setNextBooking(new ItemResponse.ItemForOwner(nextBooking.getId(), nextBooking.getBookerId()));
+        }
+        return item;
     }
 
     public List<ItemResponse> itemsForResponse(List<Item> items) {
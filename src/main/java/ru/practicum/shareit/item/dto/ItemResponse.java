@@ -36,6 +36,14 @@ public class ItemResponse {
         this.comments = comments;
     }
 
+    public ItemResponse(Integer id, String name, String description, Boolean available, Integer requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.requestId = requestId;
+    }
+
     public ItemResponse(int id, String name, String description, boolean available) {
         this.id = id;
         this.name = name;
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import net.bytebuddy.utility.nullability.MaybeNull;
 import ru.practicum.shareit.comments.dto.CommentResponse;
 import ru.practicum.shareit.item.dto.ItemResponse;
@@ -15,13 +17,16 @@ import java.util.List;
 @Builder
 @EqualsAndHashCode(of = "id")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @AllArgsConstructor
 @RequiredArgsConstructor
 @Table(name = "items")
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, length = 20)
@@ -30,7 +35,7 @@ public class Item {
     @Column(nullable = false, length = 200)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
@@ -45,11 +50,14 @@ public class Item {
     @Transient
     private List<CommentResponse> comments = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MaybeNull
     @JoinColumn(name = "request_id")
     private Request request;
 
+    @Version
+    private Long version;
+
     public Item(Integer id, String name, String description, Boolean available, List<CommentResponse> comments) {
         this.id = id;
         this.name = name;
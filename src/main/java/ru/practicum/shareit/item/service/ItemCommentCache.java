@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.AfterTransaction;
+import ru.practicum.shareit.comments.dto.CommentMapper;
+import ru.practicum.shareit.comments.dto.CommentResponse;
+import ru.practicum.shareit.user.service.CommentRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemCommentCache {
+    private final CommentRepository commentRepository;
+    private final CommentMapper commentMapper;
+    private final Cache<Integer, List<CommentResponse>> comments;
+
+    public ItemCommentCache(CommentRepository commentRepository, CommentMapper commentMapper,
+                            @Value("${shareit.comments.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${shareit.comments.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.commentRepository = commentRepository;
+        this.commentMapper = commentMapper;
+        this.comments = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, comments, "itemComments"));
+    }
+
+    public List<CommentResponse> get(Integer itemId) {
+        return comments.get(itemId, id -> commentRepository.findByItemIdAndOwnerId(id).stream()
+                .map(commentMapper::commentResponse)
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    public Map<Integer, List<CommentResponse>> getAll(Collection<Integer> itemIds) {
+        return comments.getAll(itemIds, this::load);
+    }
+
+    public void add(Integer itemId, CommentResponse comment) {
+        AfterTransaction.commit(() -> comments.asMap().computeIfPresent(itemId, (id, cached) -> {
+            if (cached.stream().anyMatch(existing -> existing.getId().equals(comment.getId()))) {
+                return cached;
+            }
+            List<CommentResponse> updated = new ArrayList<>(cached);
+            updated.add(comment);
+            return Collections.unmodifiableList(updated);
+        }));
+    }
+
+    public void evict(Integer itemId) {
+        AfterTransaction.commit(() -> comments.invalidate(itemId));
+    }
+
+    public void evictAll() {
+        AfterTransaction.commit(comments::invalidateAll);
+    }
+
+    private Map<Integer, List<CommentResponse>> load(Iterable<? extends Integer> itemIds) {
+        List<Integer> ids = new ArrayList<>();
+        itemIds.forEach(ids::add);
+
+        Map<Integer, List<CommentResponse>> loaded = new HashMap<>();
+        commentRepository.findByItemIdIn(ids).forEach(comment -> loaded
+                .computeIfAbsent(comment.getItem().getId(), id -> new ArrayList<>())
+                .add(commentMapper.commentResponse(comment)));
+
+        Map<Integer, List<CommentResponse>> result = new HashMap<>();
+        for (Integer id : ids) {
+            result.put(id, List.copyOf(loaded.getOrDefault(id, List.of())));
+        }
+        return result;
+    }
+}
@@ -2,15 +2,45 @@ package ru.practicum.shareit.item.service;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemForRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Integer> {
 
-    List<Item> findByOwnerId(Integer userId, PageRequest pageable);
+    @Query("select new ru.practicum.shareit.item.dto.ItemResponse(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.owner.id = ?1 " +
+            "order by i.id")
+    List<ItemResponse> findResponsesByOwnerId(Integer userId, PageRequest pageable);
 
-    List<Item> findByNameContainingOrDescriptionContainingIgnoreCase(String str, String str1, PageRequest pageable);
+    @Query("select new ru.practicum.shareit.item.dto.ItemResponse(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like lower(concat('%', ?1, '%')) escape '\\' " +
+            "or lower(i.description) like lower(concat('%', ?1, '%')) escape '\\') " +
+            "order by i.id")
+    List<ItemResponse> searchAvailable(String text, PageRequest pageable);
 
-    Item findByRequestId(Integer requestId);
+    @Query("select new ru.practicum.shareit.item.dto.ItemResponse(i.id, i.name, i.description, i.available) " +
+            "from Item i " +
+            "where i.available = true " +
+            "order by i.id")
+    List<ItemResponse> findAvailable();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemResponse(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.id in ?1 " +
+            "order by i.id")
+    List<ItemResponse> findResponsesByIdIn(Collection<Integer> ids);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemForRequest(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.request.id in ?1 " +
+            "order by i.id")
+    List<ItemForRequest> findForRequests(Collection<Integer> requestIds);
 }
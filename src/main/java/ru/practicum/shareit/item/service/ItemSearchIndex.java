@@ -0,0 +1,236 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.AfterTransaction;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM_SIZE = 3;
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, String> texts = new HashMap<>();
+    private volatile boolean built;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Integer> search(String text, Pageable pageable) {
+        build();
+        String query = text.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(query);
+            List<Integer> ids = new ArrayList<>();
+            long skip = pageable.getOffset();
+
+            for (int id : candidates) {
+                if (ids.size() == pageable.getPageSize()) {
+                    break;
+                }
+                if (query.length() > GRAM_SIZE && !texts.get(id).contains(query)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                ids.add(id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        if (enabled) {
+            AfterTransaction.commit(() -> update(item.getId(), searchableText(item)));
+        }
+    }
+
+    public void indexAll(List<Item> items) {
+        if (enabled) {
+            AfterTransaction.commit(() -> {
+                lock.writeLock().lock();
+                try {
+                    items.forEach(item -> update(item.getId(), searchableText(item)));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+    }
+
+    public void remove(Integer itemId) {
+        if (enabled) {
+            AfterTransaction.commit(() -> update(itemId, null));
+        }
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+            for (ItemResponse item : itemRepository.findAvailable()) {
+                add(item.getId(), text(item.getName(), item.getDescription()));
+            }
+            built = true;
+            log.info("Индекс поиска построен: вещей {}, n-грамм {}", texts.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Integer itemId, String text) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            String previous = texts.remove(itemId);
+            if (previous != null) {
+                for (String gram : grams(previous)) {
+                    Postings ids = postings.get(gram);
+                    ids.remove(itemId);
+                    if (ids.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            if (text != null) {
+                add(itemId, text);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(int itemId, String text) {
+        texts.put(itemId, text);
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(itemId);
+        }
+    }
+
+    private int[] candidates(String query) {
+        if (query.length() <= GRAM_SIZE) {
+            Postings ids = postings.get(query);
+            return ids == null ? new int[0] : ids.toArray();
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+            Postings ids = postings.get(query.substring(i, i + GRAM_SIZE));
+            if (ids == null) {
+                return new int[0];
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.size));
+
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retain(result);
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int size = 1; size <= GRAM_SIZE; size++) {
+            for (int i = 0; i + size <= text.length(); i++) {
+                String gram = text.substring(i, i + size);
+                if (gram.indexOf(FIELD_SEPARATOR) < 0) {
+                    grams.add(gram);
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static String searchableText(Item item) {
+        return Boolean.TRUE.equals(item.getAvailable()) ? text(item.getName(), item.getDescription()) : null;
+    }
+
+    private static String text(String name, String description) {
+        return (name + FIELD_SEPARATOR + description).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        int[] retain(int[] candidates) {
+            int[] result = new int[Math.min(candidates.length, size)];
+            int count = 0;
+            for (int id : candidates) {
+                if (Arrays.binarySearch(ids, 0, size, id) >= 0) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.item.dto.ItemAvailability;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
+import ru.practicum.shareit.item.dto.ItemRequest;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -11,20 +16,26 @@ public interface ItemService {
     @Transactional
     Item createItem(Item item);
 
+    @Transactional
+    List<ItemBatchResult> createItems(Integer userId, List<ItemRequest> items);
+
     @Transactional(readOnly = true)
     Item getItemById(Integer id, Integer userId);
 
+    @Transactional(readOnly = true)
+    List<ItemAvailability> getAvailability(Integer itemId, LocalDateTime from, LocalDateTime to);
+
     @Transactional(readOnly = true)
     List<Item> findByOwnerId(Integer userId, Integer from, Integer size);
 
     @Transactional(readOnly = true)
-    List<Item> searchBySubstring(String str, String str1, Integer from, Integer size);
+    List<Item> searchBySubstring(String str, Integer from, Integer size);
 
     @Transactional
     void deleteItem(Integer id);
 
-    @Transactional
-    Item updateItem(Item item);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    Item updateItem(Item item, Long expectedVersion);
 
     @Transactional
     Comment addComment(Integer itemId, Comment comment, Integer userId);
@@ -4,24 +4,45 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingRepository;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.comments.dto.CommentMapper;
 import ru.practicum.shareit.comments.dto.CommentResponse;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.exception.AccessibilityErrorException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemAvailability;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.service.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.CommentRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.version.EntityTags;
+import ru.practicum.shareit.version.OptimisticRetry;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,10 +50,20 @@ import java.util.stream.Collectors;
 @Transactional
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final UserRepository userRepository;
+    private final UserIdRegistry userIdRegistry;
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final RequestRepository requestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemCommentCache itemCommentCache;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final OptimisticRetry optimisticRetry;
+    private final Validator validator;
 
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
@@ -54,10 +85,74 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public Item createItem(Item item) {
-        userRepository.findById(item.getOwner().getId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userIdRegistry.check(item.getOwner().getId());
+
+        Item saved = itemRepository.save(item);
+        itemSearchIndex.index(saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<ItemBatchResult> createItems(Integer userId, List<ItemRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new ValidateException("Нельзя создать больше " + MAX_BATCH_SIZE + " вещей за один запрос");
+        }
+        userIdRegistry.check(userId);
+
+        Set<Integer> existingRequests = existingRequestIds(requests);
+        List<ItemBatchResult> results = new ArrayList<>(requests.size());
+        List<Item> items = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ItemRequest request = requests.get(i);
+            String error = validate(request, existingRequests);
+            if (error != null) {
+                results.add(ItemBatchResult.builder().index(i).error(error).build());
+                continue;
+            }
+            items.add(itemMapper.itemFromItemRequest(request, userId));
+            results.add(ItemBatchResult.builder().index(i).build());
+        }
+
+        Iterator<Item> saved = itemRepository.saveAll(items).iterator();
+        for (ItemBatchResult result : results) {
+            if (result.getError() == null) {
+                result.setItem(itemMapper.itemForCreate(saved.next()));
+            }
+        }
+        itemSearchIndex.indexAll(items);
+        log.info("Пакетно создано вещей {} из {} для пользователя {}", items.size(), requests.size(), userId);
+        return results;
+    }
+
+    private Set<Integer> existingRequestIds(List<ItemRequest> requests) {
+        Set<Integer> requestIds = requests.stream()
+                .filter(Objects::nonNull)
+                .map(ItemRequest::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return requestIds;
+        }
+        return new HashSet<>(requestRepository.findExistingIds(requestIds));
+    }
 
-        return itemRepository.save(item);
+    private String validate(ItemRequest request, Set<Integer> existingRequests) {
+        if (request == null) {
+            return "Пустая вещь";
+        }
+        Set<ConstraintViolation<ItemRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getRequestId() != null && !existingRequests.contains(request.getRequestId())) {
+            return "Запрос " + request.getRequestId() + " не найден";
+        }
+        return null;
     }
 
     @Override
@@ -66,135 +161,144 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
-        List<Comment> comments = commentRepository.findByItemIdAndOwnerId(item.getId());
-        List<CommentResponse> commentResponses = new ArrayList<>();
-
-        if (!comments.isEmpty()) {
-            for (Comment comment : comments) {
-                User user = userRepository.getReferenceById(comment.getAuthorName().getId());
-                CommentResponse dto = commentMapper.commentResponseFromComment(comment, user.getName());
-                commentResponses.add(dto);
-            }
-        }
+        List<CommentResponse> commentResponses = itemCommentCache.get(item.getId());
+        Item result;
         if (!item.getOwner().getId().equals(userId)) {
-            return itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, commentResponses));
+            result = itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, commentResponses));
 
         } else {
-            List<Booking> bookings = bookingRepository.findByItemId(item.getId());
-            List<Booking> pastBookings = bookingRepository.findByOwnerIdAndItemIdPastBookings(item.getOwner().getId(), item.getId());
-            List<Booking> futureBookings = bookingRepository.findByOwnerIdAndItemIdFutureBookings(item.getOwner().getId(), item.getId());
+            BookingShort lastBooking = bookingRepository.findLastBookingByItemId(item.getId()).orElse(null);
+            BookingShort nextBooking = bookingRepository.findNextBookingByItemId(item.getId()).orElse(null);
+
+            result = itemMapper.itemFromItemResponse(itemMapper.itemForOwner(item, commentResponses, lastBooking, nextBooking));
+        }
+        result.setVersion(item.getVersion());
+        return result;
+    }
 
-            return itemMapper.itemFromItemResponse(itemMapper.itemForOwner(item, commentResponses, bookings, pastBookings, futureBookings));
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemAvailability> getAvailability(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ValidateException("Не верные даты");
         }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь не найдена");
+        }
+        return bookingIntervalIndex.freeWindows(itemId, from, to);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Item> findByOwnerId(Integer userId, Integer from, Integer size) {
         PageRequest pageable = pagination(from, size);
-        List<Item> items = itemRepository.findByOwnerId(userId, pageable);
+        List<ItemResponse> items = itemRepository.findResponsesByOwnerId(userId, pageable);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> itemIds = items.stream()
+                .map(ItemResponse::getId)
+                .collect(Collectors.toList());
+
+        Map<Integer, List<CommentResponse>> comments = itemCommentCache.getAll(itemIds);
+        Map<Integer, BookingShort> lastBookings = byItemId(bookingRepository.findLastBookingsByItemIds(itemIds));
+        Map<Integer, BookingShort> nextBookings = byItemId(bookingRepository.findNextBookingsByItemIds(itemIds));
+
         return items.stream()
-                .map(item -> {
-                    List<Comment> comments = commentRepository.findByItemIdAndOwnerId(item.getId());
-                    List<CommentResponse> commentResponses = new ArrayList<>();
-
-                    if (!comments.isEmpty()) {
-
-                        for (Comment comment : comments) {
-                            User user = userRepository.getReferenceById(comment.getAuthorName().getId());
-                            CommentResponse dto = commentMapper.commentResponseFromComment(comment, user.getName());
-                            commentResponses.add(dto);
-                        }
-                    }
-                    List<Booking> bookings = bookingRepository.findByItemId(item.getId());
-                    List<Booking> pastBookings = bookingRepository.findByOwnerIdAndItemIdPastBookings(item.getOwner().getId(), item.getId());
-                    List<Booking> futureBookings = bookingRepository.findByOwnerIdAndItemIdFutureBookings(item.getOwner().getId(), item.getId());
-
-                    return itemMapper.itemFromItemResponse(itemMapper.itemForOwner(item, commentResponses, bookings, pastBookings, futureBookings));
-                })
-                .sorted(Comparator.comparing(Item::getId))
+                .map(item -> itemMapper.itemFromItemResponse(itemMapper.withOwnerDetails(item,
+                        comments.getOrDefault(item.getId(), new ArrayList<>()),
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()))))
                 .collect(Collectors.toList());
     }
 
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private Map<Integer, BookingShort> byItemId(List<BookingShort> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingShort::getItemId, Function.identity()));
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public List<Item> searchBySubstring(String str, String str1, Integer from, Integer size) {
+    public List<Item> searchBySubstring(String str, Integer from, Integer size) {
         if (str.isEmpty()) {
             return new ArrayList<>();
         }
         PageRequest pageable = pagination(from, size);
 
-        List<Item> items = itemRepository.findByNameContainingOrDescriptionContainingIgnoreCase(str, str1, pageable);
-
-        List<Item> itemsResponse = new ArrayList<>();
-
-        for (Item item : items) {
-            if (item.getAvailable()) {
-                List<Comment> comments = commentRepository.findByItemIdAndOwnerId(item.getId());
-                if (comments.isEmpty()) {
-                    itemsResponse.add(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, new ArrayList<>())));
-                } else {
-                    List<CommentResponse> dtos = new ArrayList<>();
-
-                    for (Comment comment : comments) {
-                        User user = userRepository.getReferenceById(comment.getAuthorName().getId());
-                        CommentResponse dto = commentMapper.commentResponseFromComment(comment, user.getName());
-                        dtos.add(dto);
-                    }
-                    itemsResponse.add(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, dtos)));
-                }
-            }
+        List<ItemResponse> items = itemSearchIndex.isEnabled()
+                ? findResponsesById(itemSearchIndex.search(str, pageable))
+                : itemRepository.searchAvailable(escapeLike(str), pageable);
+
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, List<CommentResponse>> comments = itemCommentCache.getAll(items.stream()
+                .map(ItemResponse::getId)
+                .collect(Collectors.toList()));
+
+        return items.stream()
+                .map(item -> itemMapper.itemFromItemResponse(itemMapper.withComments(item,
+                        comments.getOrDefault(item.getId(), new ArrayList<>()))))
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemResponse> findResponsesById(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
-        return itemsResponse;
+        return itemRepository.findResponsesByIdIn(ids);
     }
 
     @Override
     @Transactional
     public void deleteItem(Integer id) {
         itemRepository.deleteById(id);
+        entityCacheEvictor.evict(Item.class, id);
+        itemCommentCache.evict(id);
+        itemSearchIndex.remove(id);
+        bookingIntervalIndex.evict(id);
     }
 
     @Override
-    @Transactional
-    public Item updateItem(Item item) {
-        Item itemUpd = itemRepository.findById(item.getId())
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
-
-        userRepository.findById(item.getOwner().getId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Item updateItem(Item item, Long expectedVersion) {
+        return optimisticRetry.runInTransaction(() -> {
+            Item itemUpd = itemRepository.findById(item.getId())
+                    .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
-        if (!item.getOwner().getId().equals(itemUpd.getOwner().getId())) {
-            throw new NotFoundException("Пользователь " + item.getOwner().getId() + " не является владельцем  вещи " + itemUpd.getId());
-        }
+            userIdRegistry.check(item.getOwner().getId());
 
-        if (item.getName() == null) {
-            item.setName(itemUpd.getName());
-        }
-        if (item.getDescription() == null) {
-            item.setDescription(itemUpd.getDescription());
-        }
-        if (item.getAvailable() == null) {
-            item.setAvailable(itemUpd.getAvailable());
-        }
+            if (!item.getOwner().getId().equals(itemUpd.getOwner().getId())) {
+                throw new NotFoundException("Пользователь " + item.getOwner().getId() + " не является владельцем  вещи " + itemUpd.getId());
+            }
+            EntityTags.check(expectedVersion, itemUpd.getVersion());
 
-        itemUpd.setName(item.getName());
-        itemUpd.setDescription(item.getDescription());
-        itemUpd.setAvailable(item.getAvailable());
+            if (item.getName() == null) {
+                item.setName(itemUpd.getName());
+            }
+            if (item.getDescription() == null) {
+                item.setDescription(itemUpd.getDescription());
+            }
+            if (item.getAvailable() == null) {
+                item.setAvailable(itemUpd.getAvailable());
+            }
 
-        List<Comment> comments = commentRepository.findByItemIdAndOwnerId(item.getId());
-        if (comments.isEmpty()) {
-            itemUpd.setComments(new ArrayList<>());
-        } else {
-            List<CommentResponse> commentResponses = new ArrayList<>();
+            itemUpd.setName(item.getName());
+            itemUpd.setDescription(item.getDescription());
+            itemUpd.setAvailable(item.getAvailable());
 
-            for (Comment comment : comments) {
-                User commentFromUser = userRepository.getReferenceById(comment.getAuthorName().getId());
-                CommentResponse dto = commentMapper.commentResponseFromComment(comment, commentFromUser.getName());
-                commentResponses.add(dto);
-            }
-            itemUpd.setComments(commentResponses);
-        }
-        return itemRepository.save(itemUpd);
+            itemUpd.setComments(itemCommentCache.get(item.getId()));
+            Item saved = itemRepository.save(itemUpd);
+            entityCacheEvictor.evict(Item.class, saved.getId());
+            itemSearchIndex.index(saved);
+            return saved;
+        });
     }
 
     @Override
@@ -210,9 +314,20 @@ public class ItemServiceImpl implements ItemService {
         Item itemForComment = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
-        List<Booking> bookingsPast = bookingRepository.findByBookerIdAndItemIdPastBookings(user.getId(), itemForComment.getId());
+        BookingQuery bookingsOfItem = BookingQuery.builder()
+                .userId(user.getId())
+                .itemId(itemForComment.getId())
+                .limit(1)
+                .build();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BookingResponse> bookingsPast = bookingRepository.findBookingResponses(bookingsOfItem.toBuilder()
+                .rangeEnd(now)
+                .build());
 
-        List<Booking> bookingFuture = bookingRepository.findByBookerIdAndItemIdFutureBookings(user.getId(), itemForComment.getId());
+        List<BookingResponse> bookingFuture = bookingRepository.findBookingResponses(bookingsOfItem.toBuilder()
+                .rangeStart(now)
+                .build());
 
         if (!bookingFuture.isEmpty() && bookingsPast.isEmpty()) {
             throw new AccessibilityErrorException("Пользователь забронировал эту вещь в будущем");
@@ -222,6 +337,8 @@ public class ItemServiceImpl implements ItemService {
             throw new AccessibilityErrorException("Пользователь не бронировал эту вещь, либо бронирование ещё не закончилось");
         }
 
-        return commentRepository.save(commentMapper.commentFromCommentRequest(commentMapper.commentRequestFromComment(comment), user, itemForComment));
+        Comment saved = commentRepository.save(commentMapper.commentFromCommentRequest(commentMapper.commentRequestFromComment(comment), user, itemForComment));
+        itemCommentCache.add(itemForComment.getId(), commentMapper.commentResponse(saved));
+        return saved;
     }
 }
@@ -3,21 +3,44 @@ package ru.practicum.shareit.request.service;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.UsersItemRequestResponse;
 import ru.practicum.shareit.request.model.Request;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<Request, Integer> {
 
     List<Request> findByRequestorIdOrderByCreatedDateDesc(Integer userId);
 
-    @Query(value = "select * from requests " +
-            "where requestor_id <> ?1 " +
-            "order by created_date", nativeQuery = true)
+    @Query("select r from Request r " +
+            "where r.requestor.id <> ?1 " +
+            "order by r.createdDate")
     List<Request> findAllNotForCreator(Integer userId, PageRequest pageable);
 
-    @Query(value = "select * from requests " +
-            "where requestor_id <> ?1 " +
-            "order by created_date", nativeQuery = true)
+    @Query("select r from Request r " +
+            "where r.requestor.id <> ?1 " +
+            "order by r.createdDate")
     List<Request> findAllNotForCreator(Integer userId);
+
+    @Query("select new ru.practicum.shareit.request.dto.UsersItemRequestResponse(r.id, r.description, r.createdDate) " +
+            "from Request r " +
+            "where r.requestor.id = ?1 " +
+            "order by r.createdDate desc")
+    List<UsersItemRequestResponse> findResponsesByRequestorId(Integer userId);
+
+    @Query("select new ru.practicum.shareit.request.dto.UsersItemRequestResponse(r.id, r.description, r.createdDate) " +
+            "from Request r " +
+            "where r.requestor.id <> ?1 " +
+            "order by r.createdDate")
+    List<UsersItemRequestResponse> findResponsesNotForCreator(Integer userId, PageRequest pageable);
+
+    @Query("select new ru.practicum.shareit.request.dto.UsersItemRequestResponse(r.id, r.description, r.createdDate) " +
+            "from Request r " +
+            "where r.requestor.id <> ?1 " +
+            "order by r.createdDate")
+    List<UsersItemRequestResponse> findResponsesNotForCreator(Integer userId);
+
+    @Query("select r.id from Request r where r.id in ?1")
+    List<Integer> findExistingIds(Collection<Integer> ids);
 }
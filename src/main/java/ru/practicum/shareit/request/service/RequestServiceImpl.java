@@ -8,17 +8,18 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.dto.ItemForRequest;
-import ru.practicum.shareit.item.dto.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemRepository;
 import ru.practicum.shareit.request.dto.UsersItemRequestResponse;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.Request;
-import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -26,11 +27,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RequestServiceImpl implements RequestService {
 
-    private final UserRepository userRepository;
+    private final UserIdRegistry userIdRegistry;
     private final RequestRepository requestRepository;
     private final ItemRepository itemRepository;
 
-    private final ItemMapper itemMapper;
     private final ItemRequestMapper itemRequestMapper;
 
     public PageRequest pagination(Integer from, Integer size) {
@@ -46,15 +46,13 @@ public class RequestServiceImpl implements RequestService {
         if (request.getDescription() == null || request.getDescription().isEmpty()) {
             throw new ValidateException("Запрос не может быть пустым");
         }
-        userRepository.findById(request.getRequestor().getId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userIdRegistry.check(request.getRequestor().getId());
 
         return requestRepository.save(request);
     }
 
     public List<Request> getRequests(Integer userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        userIdRegistry.check(userId);
 
         List<Request> requests = requestRepository.findByRequestorIdOrderByCreatedDateDesc(userId);
         if (requests.isEmpty()) {
@@ -64,22 +62,9 @@ public class RequestServiceImpl implements RequestService {
     }
 
     public List<UsersItemRequestResponse> getRequestsForUser(Integer userId) {
-        List<Request> requests = getRequests(userId);
-        List<UsersItemRequestResponse> usersItemRequestResponses = new ArrayList<>();
+        userIdRegistry.check(userId);
 
-        for (Request request : requests) {
-            List<ItemForRequest> itemForRequests = new ArrayList<>();
-            Item item = itemRepository.findByRequestId(request.getId());
-
-            if (item == null) {
-                itemForRequests = Collections.emptyList();
-            } else {
-                itemForRequests.add(itemMapper.itemForRequestFromItem(item));
-            }
-            usersItemRequestResponses.add(itemRequestMapper.requestForUser(request, itemForRequests));
-        }
-
-        return usersItemRequestResponses;
+        return withItems(requestRepository.findResponsesByRequestorId(userId));
     }
 
     @Override
@@ -95,20 +80,29 @@ public class RequestServiceImpl implements RequestService {
         }
 
     public List<UsersItemRequestResponse> getAllRequestForUser(Integer userId, Integer from, Integer size) {
-        List<Request> requests = getAllRequests(userId, from, size);
+        if (from == null && size == null) {
+            return withItems(requestRepository.findResponsesNotForCreator(userId));
+        }
+        return withItems(requestRepository.findResponsesNotForCreator(userId, pagination(from, size)));
+    }
 
-        List<UsersItemRequestResponse> usersItemRequestResponses = new ArrayList<>();
+    private List<UsersItemRequestResponse> withItems(List<UsersItemRequestResponse> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> requestIds = requests.stream()
+                .map(UsersItemRequestResponse::getId)
+                .collect(Collectors.toList());
 
-        for (Request request : requests) {
-            List<ItemForRequest> itemForRequest = new ArrayList<>();
-            if (itemRepository.findByRequestId(request.getId()) == null) {
-                itemForRequest = Collections.emptyList();
-            } else {
-                itemForRequest.add(itemMapper.itemForRequestFromItem(itemRepository.findByRequestId(request.getId())));
-            }
-            usersItemRequestResponses.add(itemRequestMapper.requestForUser(request, itemForRequest));
+        Map<Integer, List<ItemForRequest>> items = itemRepository.findForRequests(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemForRequest::getRequestId));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (UsersItemRequestResponse request : requests) {
+            request.setCurrentDate(now);
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
         }
-        return usersItemRequestResponses;
+        return requests;
     }
 
     @Override
@@ -118,17 +112,9 @@ public class RequestServiceImpl implements RequestService {
     }
 
     public UsersItemRequestResponse getRequestByIdForUser(Integer requestId, Integer userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-
-        List<ItemForRequest> itemForRequests = new ArrayList<>();
-        Item item = itemRepository.findByRequestId(requestId);
+        userIdRegistry.check(userId);
 
-        if (item == null) {
-            itemForRequests = Collections.emptyList();
-        } else {
-            itemForRequests.add(itemMapper.itemForRequestFromItem(item));
-        }
+        List<ItemForRequest> itemForRequests = itemRepository.findForRequests(List.of(requestId));
 
         return itemRequestMapper.requestForUser(getRequestById(requestId), itemForRequests);
     }
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.user.contoller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+@RequiredArgsConstructor
+public class UserIdInterceptor implements HandlerInterceptor {
+    public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final UserIdRegistry userIdRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String header = request.getHeader(USER_ID_HEADER);
+        if (header == null) {
+            return true;
+        }
+        Integer userId;
+        try {
+            userId = Integer.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        userIdRegistry.check(userId);
+        return true;
+    }
+}
@@ -1,17 +1,22 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.comments.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
-    @Query(value = "select * from comments " +
-            "left join items as it on it.id = comments.item_id " +
-            "where it.id = ?1", nativeQuery = true)
+    @EntityGraph("Comment.author")
+    @Query("select c from Comment c where c.item.id = ?1")
     List<Comment> findByItemIdAndOwnerId(Integer itemId);
+
+    @EntityGraph("Comment.author")
+    @Query("select c from Comment c where c.item.id in ?1")
+    List<Comment> findByItemIdIn(Collection<Integer> itemIds);
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.AfterTransaction;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class UserIdRegistry {
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet ids = new BitSet();
+    private volatile boolean built;
+
+    public UserIdRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public void check(Integer userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+    }
+
+    public boolean exists(Integer userId) {
+        if (userId == null || userId < 0) {
+            return false;
+        }
+        build();
+        lock.readLock().lock();
+        try {
+            if (ids.get(userId)) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (userRepository.existsById(userId)) {
+            set(userId, true);
+            return true;
+        }
+        return false;
+    }
+
+    public void add(Integer userId) {
+        AfterTransaction.commit(() -> set(userId, true));
+    }
+
+    public void remove(Integer userId) {
+        AfterTransaction.commit(() -> set(userId, false));
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+            userRepository.findAllIds().forEach(ids::set);
+            built = true;
+            log.info("Реестр пользователей построен: пользователей {}", ids.cardinality());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void set(int userId, boolean present) {
+        lock.writeLock().lock();
+        try {
+            ids.set(userId, present);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.user.service;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
 
+    @Query("select u.id from User u")
+    List<Integer> findAllIds();
 }
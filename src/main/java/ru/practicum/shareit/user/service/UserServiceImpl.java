@@ -3,8 +3,10 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.service.ItemCommentCache;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
@@ -17,6 +19,9 @@ import static org.apache.logging.log4j.util.Strings.isNotEmpty;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final ItemCommentCache itemCommentCache;
+    private final UserIdRegistry userIdRegistry;
 
     @Override
     public User createUser(User user) {
@@ -26,7 +31,9 @@ public class UserServiceImpl implements UserService {
             throw new ValidateException("Ошибка валидации. Поле " +
                     (newName.isEmpty() ? "Имя" : "Email") + " не может быть пустым!");
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userIdRegistry.add(saved.getId());
+        return saved;
     }
 
     @Override
@@ -49,9 +56,11 @@ public class UserServiceImpl implements UserService {
         if (user.getEmail() != null) {
             userUpd.setEmail(user.getEmail());
         }
-        if (user.getName() != null) {
+        if (user.getName() != null && !user.getName().equals(userUpd.getName())) {
             userUpd.setName(user.getName());
+            itemCommentCache.evictAll();
         }
+        entityCacheEvictor.evict(User.class, id);
         return userRepository.save(userUpd);
     }
 
@@ -59,5 +68,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Integer id) {
         userRepository.deleteById(id);
+        userIdRegistry.remove(id);
+        entityCacheEvictor.evict(User.class, id);
     }
 }
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.version;
+
+import ru.practicum.shareit.exception.PreconditionFailedException;
+
+public final class EntityTags {
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private EntityTags() {
+    }
+
+    public static String format(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static Long parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(WEAK_PREFIX.length());
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Некорректный заголовок If-Match: " + ifMatch);
+        }
+    }
+
+    public static void check(Long expected, Long actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new PreconditionFailedException("Версия " + expected + " устарела, текущая версия " + actual);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.version;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class OptimisticRetry {
+    private final TransactionOperations transactions;
+    private final int maxAttempts;
+
+    @Autowired
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${shareit.optimistic-lock.max-attempts:3}") int maxAttempts) {
+        this(new TransactionTemplate(transactionManager), maxAttempts);
+    }
+
+    public OptimisticRetry(TransactionOperations transactions, int maxAttempts) {
+        this.transactions = transactions;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public <T> T run(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ConflictException("Объект изменён другим запросом, повторите попытку");
+                }
+                log.info("Конфликт версий, попытка {} из {}", attempt, maxAttempts);
+            }
+        }
+    }
+
+    public <T> T runInTransaction(Supplier<T> action) {
+        return run(() -> transactions.execute(status -> action.get()));
+    }
+}
@@ -1,42 +1,68 @@
 DROP TABLE IF EXISTS users, requests, items, bookings, comments;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-id            INT GENERATED     BY DEFAULT AS IDENTITY PRIMARY KEY,
+id            INT               DEFAULT nextval('users_seq') PRIMARY KEY,
 email         VARCHAR(40)       NOT NULL,
 name          VARCHAR(20)       NOT NULL,
 UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-id            INT GENERATED     BY DEFAULT AS IDENTITY PRIMARY KEY,
+id            INT               DEFAULT nextval('requests_seq') PRIMARY KEY,
 description   VARCHAR(200)      NOT NULL,
 requestor_id  INT               REFERENCES users(id),
 created_date  TIMESTAMP         NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS items (
-id            INT GENERATED     BY DEFAULT AS IDENTITY PRIMARY KEY,
+id            INT               DEFAULT nextval('items_seq') PRIMARY KEY,
 name          VARCHAR(20)       NOT NULL,
 description   VARCHAR(200)      NOT NULL,
 available     BOOLEAN           NOT NULL,
 owner_id      INT               REFERENCES users(id),
-request_id    INT               REFERENCES requests(id) NULL
+request_id    INT               REFERENCES requests(id) NULL,
+version       BIGINT            DEFAULT 0 NOT NULL
 );
 
 
 CREATE TABLE IF NOT EXISTS bookings (
-id            INT GENERATED     BY DEFAULT AS IDENTITY PRIMARY KEY,
+id            INT               DEFAULT nextval('bookings_seq') PRIMARY KEY,
 start_date    TIMESTAMP,
 end_date      TIMESTAMP,
 item_id       INT               REFERENCES items(id),
 booker_id     INT               REFERENCES users(id),
-status        VARCHAR(10)       NOT NULL
+status        VARCHAR(10)       NOT NULL,
+phase         VARCHAR(10)       NOT NULL,
+version       BIGINT            DEFAULT 0 NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-id            INT GENERATED     BY DEFAULT AS IDENTITY PRIMARY KEY,
+id            INT               DEFAULT nextval('comments_seq') PRIMARY KEY,
 text          VARCHAR(200)      NOT NULL,
 item_id       INT               REFERENCES items(id),
 author_id     INT               REFERENCES users(id),
 created_date  TIMESTAMP         NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_end_idx ON bookings (item_id, start_date, end_date);
+CREATE INDEX IF NOT EXISTS bookings_status_booker_idx ON bookings (status, booker_id);
+CREATE INDEX IF NOT EXISTS bookings_phase_booker_start_idx ON bookings (phase, booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_phase_item_start_idx ON bookings (phase, item_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_phase_start_idx ON bookings (phase, start_date);
+CREATE INDEX IF NOT EXISTS bookings_phase_end_idx ON bookings (phase, end_date);
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
+CREATE INDEX IF NOT EXISTS requests_requestor_idx ON requests (requestor_id);
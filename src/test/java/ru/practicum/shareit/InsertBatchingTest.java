@@ -0,0 +1,69 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InsertBatchingTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void bulkInsertIsBatchedAndIdsArePooled() {
+        User owner = userRepository.save(new User("batch@gmail.com", "Owner"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new Item("Item" + i, "Description", owner, true));
+        }
+
+        itemRepository.saveAll(items);
+        entityManager.flush();
+
+        assertEquals(121, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+                () -> "Ожидалась пакетная вставка, подготовлено запросов: " + statistics.getPrepareStatementCount());
+        assertEquals(120, items.stream().map(Item::getId).distinct().count());
+    }
+
+    @Test
+    void databaseDefaultsDoNotCollideWithPooledIds() {
+        User owner = userRepository.save(new User("pooled@gmail.com", "Owner"));
+        entityManager.flush();
+
+        entityManager.createNativeQuery("insert into users (email, name) values ('plain@gmail.com', 'Plain')").executeUpdate();
+        User next = userRepository.save(new User("next@gmail.com", "Next"));
+        entityManager.flush();
+
+        Number plainId = (Number) entityManager.createNativeQuery("select id from users where email = 'plain@gmail.com'")
+                .getSingleResult();
+        assertTrue(plainId.intValue() != owner.getId() && plainId.intValue() != next.getId());
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresSchemaTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void trigramIndexesExistAfterStartup() {
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from pg_indexes where tablename = 'items' " +
+                "and indexname in ('items_name_trgm_idx', 'items_description_trgm_idx')", Integer.class));
+    }
+
+    @Test
+    void foreignKeyLookupsUseNamedIndexes() {
+        assertPlanUses("items_owner_idx", "select * from items where owner_id = 1");
+        assertPlanUses("items_request_idx", "select * from items where request_id = 1");
+        assertPlanUses("comments_item_idx", "select * from comments where item_id = 1");
+        assertPlanUses("requests_requestor_idx", "select * from requests where requestor_id = 1");
+    }
+
+    @Test
+    void overlappingApprovedBookingIsRejectedByConstraint() {
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_constraint " +
+                "where conname = 'bookings_approved_no_overlap'", Integer.class));
+        jdbcTemplate.update("insert into users (email, name) values ('owner@pg.test', 'Owner'), ('booker@pg.test', 'Booker')");
+        jdbcTemplate.update("insert into items (name, description, available, owner_id) " +
+                "select 'Дрель', 'Мощная', true, id from users where email = 'owner@pg.test'");
+        String insert = "insert into bookings (start_date, end_date, item_id, booker_id, status, phase) " +
+                "select ?::timestamp, ?::timestamp, i.id, u.id, ?, 'FUTURE' from items i, users u " +
+                "where i.name = 'Дрель' and u.email = 'booker@pg.test'";
+
+        jdbcTemplate.update(insert, "2030-01-01 10:00", "2030-01-03 10:00", "APPROVED");
+        jdbcTemplate.update(insert, "2030-01-02 10:00", "2030-01-04 10:00", "WAITING");
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update(insert, "2030-01-02 10:00", "2030-01-04 10:00", "APPROVED"));
+    }
+
+    private void assertPlanUses(String index, String sql) {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                try (ResultSet result = statement.executeQuery("explain " + sql)) {
+                    StringBuilder lines = new StringBuilder();
+                    while (result.next()) {
+                        lines.append(result.getString(1)).append('\n');
+                    }
+                    return lines.toString();
+                } finally {
+                    statement.execute("reset enable_seqscan");
+                }
+            }
+        });
+
+        assertTrue(plan.contains("Index Cond") && plan.contains(" " + index + " "),
+                () -> "Ожидался индекс " + index + " в плане: " + plan);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class SchemaIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookerHistoryUsesBookerStartIndex() {
+        assertPlanUses("BOOKINGS_BOOKER_START_IDX",
+                "select * from bookings where booker_id = 1 and start_date < current_timestamp order by start_date desc");
+    }
+
+    @Test
+    void itemRangeLookupUsesItemStartEndIndex() {
+        assertPlanUses("BOOKINGS_ITEM_START_END_IDX",
+                "select * from bookings where item_id = 1 and start_date < current_timestamp and end_date > current_timestamp");
+    }
+
+    @Test
+    void statusFilterUsesStatusBookerIndex() {
+        assertPlanUses("BOOKINGS_STATUS_BOOKER_IDX",
+                "select * from bookings where status = 'WAITING' and booker_id = 1");
+    }
+
+    @Test
+    void phaseTransitionUsesPhaseIndexes() {
+        assertPlanUses("BOOKINGS_PHASE_END_IDX",
+                "select id from bookings where phase in ('FUTURE', 'CURRENT') and end_date < current_timestamp");
+        assertPlanUses("BOOKINGS_PHASE_START_IDX",
+                "select id from bookings where phase = 'FUTURE' and start_date <= current_timestamp");
+    }
+
+    private void assertPlanUses(String index, String sql) {
+        String plan = explain(sql);
+
+        assertTrue(plan.toUpperCase().contains(index), () -> "Ожидался индекс " + index + " в плане: " + plan);
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(jdbcTemplate.queryForObject("explain " + sql, String.class));
+    }
+}
@@ -8,18 +8,32 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingResponse;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.AccessibilityErrorException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.export.ExportService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -36,14 +50,20 @@ class BookingControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private BookingServiceImpl bookingService;
+    @MockBean
+    private UserIdRegistry userIdRegistry;
+    @MockBean
+    private ExportService exportService;
 
     Item item = new Item();
 
     User user = new User();
 
-    Booking booking = new Booking(1, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.APPROVED);
+    Booking booking = new Booking(1, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.APPROVED, BookingPhase.FUTURE, 0L);
 
-    List<Booking> bookings = List.of(booking);
+    BookingResponse bookingResponse = new BookingResponse(1, booking.getStart(), booking.getEnd(), BookingStatus.APPROVED, 3, 4, "Test");
+
+    List<BookingResponse> bookings = List.of(bookingResponse);
 
     Booking bookingReqNotValidDate = new Booking(LocalDateTime.now().minusDays(1), LocalDateTime.now().minusDays(3));
 
@@ -70,7 +90,7 @@ class BookingControllerTest {
         int bookingId = 1;
         String approve = "true";
 
-        when(bookingService.approveOrReject(bookingId, userId, "true")).thenReturn(booking);
+        when(bookingService.approveOrReject(bookingId, userId, "true", null)).thenReturn(booking);
 
         mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
                         .header("X-Sharer-User-Id", String.valueOf(userId))
@@ -79,7 +99,60 @@ class BookingControllerTest {
                 .andExpect(content().contentType("application/json"))
                 .andExpect(jsonPath("$.id", is(booking.getId())))
                 .andExpect(jsonPath("$.status", is(String.valueOf(booking.getStatus()))))
-                .andExpect(jsonPath("$.booker.id", is(booking.getBooker().getId())));
+                .andExpect(jsonPath("$.booker.id", is(booking.getBooker().getId())))
+                .andExpect(header().string("ETag", "\"0\""));
+    }
+
+    @Test
+    void approvedBookingsInBatch() throws Exception {
+        List<BookingDecision> decisions = List.of(new BookingDecision(1, true), new BookingDecision(5, false));
+        when(bookingService.approveOrRejectAll(2, decisions)).thenReturn(List.of(
+                BookingBatchResult.builder().bookingId(1).status(BookingStatus.APPROVED).build(),
+                BookingBatchResult.builder().bookingId(5).error("Бронирование не найдено").build()));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", "2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].error", is("Бронирование не найдено")));
+    }
+
+    @Test
+    void approvedBookingPassesIfMatchVersion() throws Exception {
+        when(bookingService.approveOrReject(1, 2, "true", 3L)).thenReturn(booking);
+
+        mockMvc.perform(patch("/bookings/{bookingId}", 1)
+                        .header("X-Sharer-User-Id", "2")
+                        .header("If-Match", "\"3\"")
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void approvedBookingWhenVersionIsStale() throws Exception {
+        when(bookingService.approveOrReject(1, 2, "true", 3L))
+                .thenThrow(new PreconditionFailedException("Версия 3 устарела, текущая версия 4"));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", 1)
+                        .header("X-Sharer-User-Id", "2")
+                        .header("If-Match", "\"3\"")
+                        .param("approved", "true"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", is("Версия 3 устарела, текущая версия 4")));
+    }
+
+    @Test
+    void approvedBookingWhenRetriesExhausted() throws Exception {
+        when(bookingService.approveOrReject(1, 2, "true", null))
+                .thenThrow(new ConflictException("Объект изменён другим запросом, повторите попытку"));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", 1)
+                        .header("X-Sharer-User-Id", "2")
+                        .param("approved", "true"))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -134,9 +207,80 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
                 .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].id", is(booking.getId())))
-                .andExpect(jsonPath("$[0].item.id", is(booking.getItem().getId())))
-                .andExpect(jsonPath("$[0].booker.id", is(booking.getBooker().getId())))
-                .andExpect(jsonPath("$.[0].status", is(String.valueOf(booking.getStatus()))));
+                .andExpect(jsonPath("$[0].id", is(bookingResponse.getId())))
+                .andExpect(jsonPath("$[0].item.id", is(bookingResponse.getItem().getId())))
+                .andExpect(jsonPath("$[0].booker.id", is(bookingResponse.getBooker().getId())))
+                .andExpect(jsonPath("$.[0].status", is(String.valueOf(bookingResponse.getStatus()))));
+    }
+
+    @Test
+    void streamBookingsForOwnerWritesNdjsonLines() throws Exception {
+        Integer userId = 2;
+
+        when(bookingService.streamBookingsByUserId(userId, "ALL", true)).thenReturn(Stream.of(bookings, bookings));
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/stream")
+                        .header("X-Sharer-User-Id", String.valueOf(userId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(bookingResponse.getId(), objectMapper.readTree(lines[0]).get("id").asInt());
+    }
+
+    @Test
+    void exportBookingsForOwnerStreamsCsv() throws Exception {
+        Integer userId = 2;
+
+        when(exportService.parseFormat("csv")).thenReturn(ExportFormat.CSV);
+        when(exportService.exportOwnerBookings(userId, ExportFormat.CSV))
+                .thenReturn(output -> output.write("id\n1\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .param("format", "csv")
+                        .header("X-Sharer-User-Id", String.valueOf(userId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(content().string("id\n1\n"));
+    }
+
+    @Test
+    void getBookingsWithCursorReturnsNextCursorWhenPageFull() throws Exception {
+        Integer userId = 2;
+
+        when(bookingService.getBookingsByUserIdAfter(userId, "ALL", false, "", 1)).thenReturn(bookings);
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", String.valueOf(userId))
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, BookingCursor.of(bookingResponse).encode()))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingResponse.getId())));
+    }
+
+    @Test
+    void getOwnerBookingsWithCursorOmitsNextCursorOnLastPage() throws Exception {
+        Integer userId = 2;
+        String cursor = BookingCursor.of(bookingResponse).encode();
+
+        when(bookingService.getBookingsByUserIdAfter(userId, "ALL", true, cursor, 100)).thenReturn(bookings);
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", String.valueOf(userId))
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.AccessibilityErrorException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.version.OptimisticRetry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingServiceImpl.class, BookingIntervalIndex.class, ItemLocks.class, OptimisticRetry.class, BookingMapper.class})
+class BookingConcurrencyTest {
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    LocalDateTime start = LocalDateTime.now().plusDays(1);
+    LocalDateTime end = start.plusHours(2);
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User("concurrent-owner@gmail.com", "Owner"));
+        booker = userRepository.save(new User("concurrent-booker@gmail.com", "Booker"));
+        item = itemRepository.save(new Item("Дрель", "Мощная", owner, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBookingsOfSameSlotSaveExactlyOne() throws Exception {
+        List<Throwable> failures = runConcurrently(i -> bookingService.createBooking(new Booking(item, start, end, booker)));
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(AccessibilityErrorException.class, failure));
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsApproveExactlyOne() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING,
+                    start.plusMinutes(i), end.plusMinutes(i))).getId());
+        }
+
+        List<Throwable> failures = runConcurrently(i -> bookingService.approveOrReject(ids.get(i), owner.getId(), "true", null));
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertInstanceOf(AccessibilityErrorException.class, failure));
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+
+    @Test
+    void concurrentDecisionsOnSameBookingApplyExactlyOne() throws Exception {
+        Integer bookingId = bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING, start, end)).getId();
+
+        List<Throwable> failures = runConcurrently(i ->
+                bookingService.approveOrReject(bookingId, owner.getId(), String.valueOf(i % 2 == 0), null));
+
+        assertEquals(THREADS - 1, failures.size());
+        failures.forEach(failure -> assertTrue(failure instanceof AccessibilityErrorException || failure instanceof ConflictException,
+                () -> "Неожиданная ошибка " + failure));
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        assertNotEquals(BookingStatus.WAITING, booking.getStatus());
+        assertEquals(1L, booking.getVersion());
+    }
+
+    @Test
+    void approvalWithStaleVersionIsRejected() {
+        Integer bookingId = bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING, start, end)).getId();
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookingService.approveOrReject(bookingId, owner.getId(), "true", 7L));
+        Booking approved = bookingService.approveOrReject(bookingId, owner.getId(), "true", 0L);
+
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        assertEquals(1L, approved.getVersion());
+    }
+
+    private List<Throwable> runConcurrently(Task task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            futures.add(executor.submit((Callable<Object>) () -> {
+                ready.await();
+                return task.run(index);
+            }));
+        }
+        ready.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return failures;
+    }
+
+    private interface Task {
+        Object run(int index);
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemAvailability;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    LocalDateTime day = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    User owner = new User(1, "owner@gmail.com", "Owner");
+    User booker = new User(2, "booker@gmail.com", "Booker");
+
+    Item item = new Item(1, "Дрель", "Ударная дрель", owner, true);
+
+    @BeforeEach
+    void setUp() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+    }
+
+    @Test
+    void overlapsDetectsIntersectionWithAnyBooking() {
+        when(bookingRepository.findIntervalsByItemId(any(), any())).thenReturn(List.of(
+                interval(1, day.plusHours(1), day.plusHours(10)),
+                interval(2, day.plusHours(2), day.plusHours(3)),
+                interval(3, day.plusHours(20), day.plusHours(22))));
+
+        assertTrue(bookingIntervalIndex.overlaps(1, day.plusHours(5), day.plusHours(6)));
+        assertTrue(bookingIntervalIndex.overlaps(1, day, day.plusHours(2)));
+        assertTrue(bookingIntervalIndex.overlaps(1, day.plusHours(21), day.plusHours(30)));
+        assertFalse(bookingIntervalIndex.overlaps(1, day.plusHours(10), day.plusHours(20)));
+        assertFalse(bookingIntervalIndex.overlaps(1, day, day.plusHours(1)));
+        assertFalse(bookingIntervalIndex.overlaps(1, day.plusHours(22), day.plusHours(23)));
+
+        verify(bookingRepository, times(1)).findIntervalsByItemId(any(), any());
+    }
+
+    @Test
+    void freeWindowsAreGapsBetweenBookings() {
+        when(bookingRepository.findIntervalsByItemId(any(), any())).thenReturn(List.of(
+                interval(1, day.plusHours(1), day.plusHours(4)),
+                interval(2, day.plusHours(3), day.plusHours(5)),
+                interval(3, day.plusHours(8), day.plusHours(9))));
+
+        List<ItemAvailability> windows = bookingIntervalIndex.freeWindows(1, day, day.plusHours(12));
+
+        assertEquals(List.of(
+                new ItemAvailability(day, day.plusHours(1)),
+                new ItemAvailability(day.plusHours(5), day.plusHours(8)),
+                new ItemAvailability(day.plusHours(9), day.plusHours(12))), windows);
+        assertEquals(List.of(new ItemAvailability(day.plusHours(6), day.plusHours(7))),
+                bookingIntervalIndex.freeWindows(1, day.plusHours(6), day.plusHours(7)));
+        assertTrue(bookingIntervalIndex.freeWindows(1, day.plusHours(2), day.plusHours(5)).isEmpty());
+    }
+
+    @Test
+    void addAndRemoveKeepLoadedItemInSync() {
+        when(bookingRepository.findIntervalsByItemId(any(), any())).thenReturn(List.of());
+        assertFalse(bookingIntervalIndex.overlaps(1, day, day.plusHours(1)));
+
+        Booking waiting = new Booking(5, day, day.plusHours(2), BookingStatus.WAITING, booker, item);
+        bookingIntervalIndex.add(waiting);
+        assertTrue(bookingIntervalIndex.overlaps(1, day.plusHours(1), day.plusHours(3)));
+
+        waiting.setStatus(BookingStatus.REJECTED);
+        bookingIntervalIndex.remove(waiting);
+        assertFalse(bookingIntervalIndex.overlaps(1, day.plusHours(1), day.plusHours(3)));
+
+        bookingIntervalIndex.add(new Booking(6, day, day.plusHours(2), BookingStatus.REJECTED, booker, item));
+        assertFalse(bookingIntervalIndex.overlaps(1, day.plusHours(1), day.plusHours(3)));
+    }
+
+    @Test
+    void pastIntervalsAreDroppedOnLoadAndWhenArraysGrow() {
+        LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.findIntervalsByItemId(any(), any())).thenReturn(List.of(
+                interval(1, now.minusDays(5), now.minusDays(4)),
+                interval(2, now.minusDays(3), now.minusDays(2)),
+                interval(3, now.plusDays(1), now.plusDays(2))));
+
+        assertFalse(bookingIntervalIndex.overlaps(1, now.minusDays(5), now.minusDays(2)));
+        assertEquals(1, bookingIntervalIndex.size(1));
+
+        for (int id = 10; id < 13; id++) {
+            bookingIntervalIndex.add(new Booking(id, now.minusDays(id), now.minusDays(id - 1), BookingStatus.APPROVED, booker, item));
+        }
+        assertEquals(4, bookingIntervalIndex.size(1));
+
+        bookingIntervalIndex.add(new Booking(20, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING, booker, item));
+        assertEquals(2, bookingIntervalIndex.size(1));
+        assertTrue(bookingIntervalIndex.overlaps(1, now.plusDays(1), now.plusDays(4)));
+    }
+
+    @Test
+    void freeWindowsStartNoEarlierThanNow() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertTrue(bookingIntervalIndex.freeWindows(1, now.minusDays(2), now.minusDays(1)).isEmpty());
+    }
+
+    private BookingInterval interval(int id, LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
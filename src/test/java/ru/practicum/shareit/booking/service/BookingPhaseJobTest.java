@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingPhase;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingPhaseJobTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingPhaseJob job = new BookingPhaseJob(bookingRepository, 100);
+
+    @Test
+    void advanceRepeatsFullBatchesUntilShortOne() {
+        when(bookingRepository.advancePhase(eq(BookingPhase.PAST), any(), eq(100))).thenReturn(100, 100, 7);
+        when(bookingRepository.advancePhase(eq(BookingPhase.CURRENT), any(), eq(100))).thenReturn(0);
+
+        job.advance();
+
+        verify(bookingRepository, times(3)).advancePhase(eq(BookingPhase.PAST), any(), eq(100));
+        verify(bookingRepository, times(1)).advancePhase(eq(BookingPhase.CURRENT), any(), eq(100));
+    }
+}
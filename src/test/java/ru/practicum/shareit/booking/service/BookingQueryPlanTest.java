@@ -0,0 +1,152 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.EmbeddedPostgresTest;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.booking.service.BookingQueryPlanTest$LastStatement")
+class BookingQueryPlanTest extends EmbeddedPostgresTest {
+
+    private static final Set<String> BOOKING_INDEXES = Set.of(
+            "bookings_booker_start_idx",
+            "bookings_item_start_end_idx",
+            "bookings_status_booker_idx",
+            "bookings_phase_booker_start_idx",
+            "bookings_phase_item_start_idx",
+            "bookings_phase_start_idx",
+            "bookings_phase_end_idx");
+
+    @Autowired
+    private BookingRepositoryImpl bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void everyShapeUsesIndexes() throws JsonProcessingException {
+        for (BookingQuery query : shapes()) {
+            List<JsonNode> nodes = new ArrayList<>();
+            collect(explain(query).get(0).get("Plan"), nodes);
+
+            for (JsonNode node : nodes) {
+                assertNotEquals("Seq Scan", node.get("Node Type").asText(), () -> "Полный просмотр таблицы для " + query);
+                if (node.has("Index Name")) {
+                    assertTrue(node.has("Index Cond"), () -> "Индекс " + node.get("Index Name") + " просматривается целиком для " + query);
+                }
+            }
+            assertTrue(nodes.stream()
+                            .filter(node -> node.has("Index Name"))
+                            .anyMatch(node -> BOOKING_INDEXES.contains(node.get("Index Name").asText())),
+                    () -> "Не использован индекс бронирований для " + query);
+        }
+    }
+
+    @Test
+    void shapeIsCompiledOnce() {
+        BookingQuery query = BookingQuery.builder()
+                .userId(1)
+                .state(BookingState.PAST)
+                .itemId(2)
+                .build();
+        int shapes = bookingRepository.cachedShapes();
+
+        String statement = bookingRepository.statement(query);
+
+        assertSame(statement, bookingRepository.statement(query.toBuilder().userId(3).itemId(4).build()));
+        assertEquals(shapes + 1, bookingRepository.cachedShapes());
+    }
+
+    private List<BookingQuery> shapes() {
+        List<BookingQuery> shapes = new ArrayList<>();
+        for (int role = 0; role < 3; role++) {
+            for (BookingState state : BookingState.values()) {
+                for (int filters = 0; filters < 16; filters++) {
+                    if (role == 0 && (filters & 1) == 0) {
+                        continue;
+                    }
+                    shapes.add(BookingQuery.builder()
+                            .userId(role == 0 ? null : 1)
+                            .owner(role == 2)
+                            .state(state)
+                            .itemId((filters & 1) != 0 ? 1 : null)
+                            .rangeStart((filters & 2) != 0 ? LocalDateTime.now() : null)
+                            .rangeEnd((filters & 4) != 0 ? LocalDateTime.now() : null)
+                            .cursor((filters & 8) != 0 ? new BookingCursor(LocalDateTime.now(), 1) : null)
+                            .limit(10)
+                            .build());
+                }
+            }
+        }
+        return shapes;
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        node.path("Plans").forEach(child -> collect(child, nodes));
+    }
+
+    private JsonNode explain(BookingQuery query) throws JsonProcessingException {
+        bookingRepository.findBookingResponses(query);
+        String sql = LastStatement.sql;
+        StringBuilder prepared = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameters);
+            } else {
+                prepared.append(c);
+            }
+        }
+        String arguments = String.join(", ", Collections.nCopies(parameters, "null"));
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                statement.execute("set plan_cache_mode = force_generic_plan");
+                statement.execute("prepare shape as " + prepared);
+                try (ResultSet result = statement.executeQuery("explain (format json) execute shape(" + arguments + ")")) {
+                    result.next();
+                    return result.getString(1);
+                } finally {
+                    statement.execute("deallocate shape");
+                    statement.execute("reset all");
+                }
+            }
+        });
+        return objectMapper.readTree(plan);
+    }
+
+    public static class LastStatement implements StatementInspector {
+        private static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
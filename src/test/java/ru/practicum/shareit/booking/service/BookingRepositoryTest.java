@@ -6,8 +6,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemRepository;
@@ -16,9 +23,14 @@ import ru.practicum.shareit.user.service.CommentRepository;
 import ru.practicum.shareit.user.service.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 @DataJpaTest
@@ -32,6 +44,8 @@ class BookingRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager entityManager;
 
 
     @BeforeEach
@@ -60,29 +74,116 @@ class BookingRepositoryTest {
     Booking bookingTwo = new Booking(itemTwo, userBooker, BookingStatus.REJECTED, LocalDateTime.now().minusHours(2), LocalDateTime.now().plusDays(1));
     Booking bookingThree = new Booking(item, userBooker, BookingStatus.APPROVED, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(3));
 
-    PageRequest page = PageRequest.of(1 / 10, 10);
-
-
     @Test
     void findBookingsWhenOwnerIdOneAndBookingsTwo() {
-        List<Booking> bookings = bookingRepository.findByOwnerId(userOwner.getId(), page);
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userOwner.getId())
+                .owner(true)
+                .limit(10)
+                .build());
 
-        System.out.println(bookings);
         assertEquals(bookings.size(), 3);
         assertEquals(bookings.get(0).getId(), bookingThree.getId());
     }
 
     @Test
-    void findBookingsWhenOwnerIdOneAndItemIdTwoInPast() {
-        List<Booking> bookings = bookingRepository.findByOwnerIdAndItemIdPastBookings(userOwner.getId(), itemTwo.getId());
+    void insertIfBookableDrawsIdsFromPooledGenerator() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
 
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getId(), booking.getId());
+        Integer first = bookingRepository.insertIfBookable(userBooker.getId(), item.getId(), start, start.plusDays(1));
+        Integer second = bookingRepository.insertIfBookable(userBooker.getId(), item.getId(), start.plusDays(2), start.plusDays(3));
+        Booking saved = bookingRepository.save(new Booking(item, userBooker, BookingStatus.WAITING, start.plusDays(4), start.plusDays(5)));
+
+        assertEquals(bookingThree.getId() + 1, first);
+        assertEquals(first + 1, second);
+        assertEquals(second + 1, saved.getId());
+    }
+
+    @Test
+    void advancePhaseMovesStaleBookingsInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            Booking stale = new Booking(item, userBooker, BookingStatus.APPROVED, now.minusDays(i + 2), now.minusDays(i + 1));
+            stale.setPhase(BookingPhase.FUTURE);
+            bookingRepository.save(stale);
+        }
+        Booking started = new Booking(item, userBooker, BookingStatus.WAITING, now.minusHours(1), now.plusHours(1));
+        started.setPhase(BookingPhase.FUTURE);
+        bookingRepository.save(started);
+
+        assertEquals(2, bookingRepository.advancePhase(BookingPhase.PAST, now, 2));
+        assertEquals(1, bookingRepository.advancePhase(BookingPhase.PAST, now, 2));
+        assertEquals(0, bookingRepository.advancePhase(BookingPhase.PAST, now, 2));
+        assertEquals(1, bookingRepository.advancePhase(BookingPhase.CURRENT, now, 2));
+        assertEquals(0, bookingRepository.advancePhase(BookingPhase.CURRENT, now, 2));
+        entityManager.clear();
+
+        BookingQuery query = BookingQuery.builder().userId(userBooker.getId()).limit(10).build();
+        assertEquals(4, bookingRepository.findBookingResponses(query.toBuilder().state(BookingState.PAST).build()).size());
+        assertEquals(2, bookingRepository.findBookingResponses(query.toBuilder().state(BookingState.CURRENT).build()).size());
+        assertEquals(1, bookingRepository.findBookingResponses(query.toBuilder().state(BookingState.FUTURE).build()).size());
+    }
+
+    @Test
+    void stateFiltersRecheckTimeWhilePhaseLags() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking ended = new Booking(item, userBooker, BookingStatus.APPROVED, now.minusDays(3), now.minusDays(2));
+        ended.setPhase(BookingPhase.FUTURE);
+        bookingRepository.save(ended);
+        Booking started = new Booking(item, userBooker, BookingStatus.APPROVED, now.minusHours(1), now.plusHours(1));
+        started.setPhase(BookingPhase.FUTURE);
+        bookingRepository.save(started);
+        entityManager.flush();
+        entityManager.clear();
+
+        BookingQuery query = BookingQuery.builder().userId(userBooker.getId()).limit(10).build();
+        List<Integer> past = ids(bookingRepository.findBookingResponses(query.toBuilder().state(BookingState.PAST).build()));
+        List<Integer> current = ids(bookingRepository.findBookingResponses(query.toBuilder().state(BookingState.CURRENT).build()));
+        List<Integer> future = ids(bookingRepository.findBookingResponses(query.toBuilder().state(BookingState.FUTURE).build()));
+
+        assertEquals(List.of(booking.getId(), ended.getId()), past);
+        assertEquals(List.of(started.getId(), bookingTwo.getId()), current);
+        assertEquals(List.of(bookingThree.getId()), future);
+    }
+
+    @Test
+    void findLastBookingWhenItemHasPastAndRejectedBookings() {
+        Optional<BookingShort> last = bookingRepository.findLastBookingByItemId(itemTwo.getId());
+
+        assertTrue(last.isPresent());
+        assertEquals(booking.getId(), last.get().getId());
+        assertEquals(userBooker.getId(), last.get().getBookerId());
+        assertTrue(bookingRepository.findNextBookingByItemId(itemTwo.getId()).isEmpty());
+    }
+
+    @Test
+    void findLastAndNextBookingsForSetOfItems() {
+        Booking older = bookingRepository.save(new Booking(itemTwo, userBooker, BookingStatus.APPROVED,
+                LocalDateTime.now().minusDays(5), LocalDateTime.now().minusDays(4)));
+        Booking later = bookingRepository.save(new Booking(item, userBooker, BookingStatus.WAITING,
+                LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6)));
+
+        List<BookingShort> last = bookingRepository.findLastBookingsByItemIds(List.of(item.getId(), itemTwo.getId()));
+        List<BookingShort> next = bookingRepository.findNextBookingsByItemIds(List.of(item.getId(), itemTwo.getId()));
+
+        assertEquals(1, last.size());
+        assertEquals(booking.getId(), last.get(0).getId());
+        assertEquals(itemTwo.getId(), last.get(0).getItemId());
+        assertEquals(1, next.size());
+        assertEquals(bookingThree.getId(), next.get(0).getId());
+        assertEquals(item.getId(), next.get(0).getItemId());
+        assertNotEquals(older.getId(), last.get(0).getId());
+        assertNotEquals(later.getId(), next.get(0).getId());
     }
 
     @Test
     void findBookingsWhenOwnerIdOneAndStatusRejected() {
-        List<Booking> bookings = bookingRepository.findByOwnerIdAndStatus(userOwner.getId(), "REJECTED", page);
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userOwner.getId())
+                .owner(true)
+                .state(BookingState.REJECTED)
+                .limit(10)
+                .build());
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), bookingTwo.getId());
@@ -91,7 +192,12 @@ class BookingRepositoryTest {
 
     @Test
     void findBookingsWhenOwnerIdOneInFuture() {
-        List<Booking> bookings = bookingRepository.findByOwnerIdFutureBookings(userOwner.getId(), page);
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userOwner.getId())
+                .owner(true)
+                .state(BookingState.FUTURE)
+                .limit(10)
+                .build());
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), bookingThree.getId());
@@ -99,9 +205,94 @@ class BookingRepositoryTest {
 
     @Test
     void findBookingsWhenBookerIdTwoInPresent() {
-        List<Booking> bookings = bookingRepository.findByBookerIdCurrentBookings(userBooker.getId(), page);
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userBooker.getId())
+                .state(BookingState.CURRENT)
+                .limit(10)
+                .build());
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getBooker().getId(), userBooker.getId());
+        assertEquals(bookings.get(0).getItem().getName(), itemTwo.getName());
+    }
+
+    @Test
+    void findBookingsBeforeCursorWalksHistoryByStartAndId() {
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingResponse> firstPage = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userBooker.getId())
+                .limit(2)
+                .build());
+
+        assertEquals(List.of(bookingThree.getId(), bookingTwo.getId()), ids(firstPage));
+
+        List<BookingResponse> secondPage = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userBooker.getId())
+                .cursor(BookingCursor.of(firstPage.get(1)))
+                .limit(2)
+                .build());
+
+        assertEquals(List.of(booking.getId()), ids(secondPage));
+    }
+
+    @Test
+    void findPastBookingsForOwnerBeforePhaseIsAdvanced() {
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userOwner.getId())
+                .owner(true)
+                .state(BookingState.PAST)
+                .limit(10)
+                .build());
+
+        assertEquals(List.of(booking.getId()), ids(bookings));
+    }
+
+    @Test
+    void findBookingResponsesSkipsOffsetRows() {
+        List<BookingResponse> bookings = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userBooker.getId())
+                .offset(1)
+                .limit(10)
+                .build());
+
+        assertEquals(List.of(bookingTwo.getId(), booking.getId()), ids(bookings));
+    }
+
+    @Test
+    void findBookingResponsesForItemWithinDateRange() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BookingResponse> started = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userBooker.getId())
+                .itemId(itemTwo.getId())
+                .rangeEnd(now)
+                .build());
+
+        assertEquals(List.of(bookingTwo.getId(), booking.getId()), ids(started));
+
+        List<BookingResponse> notFinished = bookingRepository.findBookingResponses(BookingQuery.builder()
+                .userId(userBooker.getId())
+                .itemId(itemTwo.getId())
+                .rangeStart(now)
+                .build());
+
+        assertEquals(List.of(bookingTwo.getId()), ids(notFinished));
+    }
+
+    private List<Integer> ids(List<BookingResponse> bookings) {
+        return bookings.stream().map(BookingResponse::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void findIntervalsSkipsRejectedBookings() {
+        List<BookingInterval> intervals = bookingRepository.findIntervalsByItemId(itemTwo.getId(),
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED));
+
+        assertEquals(1, intervals.size());
+        assertEquals(booking.getId(), intervals.get(0).getId());
+        assertEquals(booking.getStart().truncatedTo(ChronoUnit.SECONDS), intervals.get(0).getStart().truncatedTo(ChronoUnit.SECONDS));
+        assertEquals(booking.getEnd().truncatedTo(ChronoUnit.SECONDS), intervals.get(0).getEnd().truncatedTo(ChronoUnit.SECONDS));
     }
-}
\ No newline at end of file
+}
@@ -4,23 +4,37 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.BookingSlot;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exception.AccessibilityErrorException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.version.OptimisticRetry;
 import ru.practicum.shareit.user.service.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,7 +51,13 @@ class BookingServiceImplTest {
     private BookingRepository bookingRepository;
 
     @Mock
-    private BookingMapper bookingMapper;
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Spy
+    private ItemLocks itemLocks = new ItemLocks(16);
+
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(), 3);
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -56,6 +76,12 @@ class BookingServiceImplTest {
 
     Booking bookingApproved = new Booking(1, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3), BookingStatus.APPROVED, booker, item);
 
+    BookingResponse responseOne = new BookingResponse(1, bookingOne.getStart(), bookingOne.getEnd(), BookingStatus.WAITING,
+            booker.getId(), item.getId(), item.getName());
+
+    BookingResponse responseApproved = new BookingResponse(2, bookingOne.getStart(), bookingOne.getEnd(), BookingStatus.APPROVED,
+            booker.getId(), item.getId(), item.getName());
+
 
     @Test
     void paginationNotValid() {
@@ -65,46 +91,102 @@ class BookingServiceImplTest {
 
     @Test
     void approveBooking() {
-        when(bookingRepository.getReferenceById(anyInt())).thenReturn(bookingOne);
-
-        when(itemRepository.getReferenceById(anyInt())).thenReturn(item);
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(bookingOne));
 
         when(bookingRepository.save(bookingOne)).thenReturn(bookingOne);
 
-        Booking result = bookingService.approveOrReject(1, 2, "true");
+        Booking result = bookingService.approveOrReject(1, 2, "true", null);
 
         assertEquals(result, bookingOne);
+        verify(bookingIntervalIndex, never()).remove(any());
     }
 
     @Test
-    void approveBookingWhenStatusNotWaiting() {
-        when(bookingRepository.getReferenceById(anyInt())).thenReturn(bookingApproved);
+    void approveBookingWhenApprovedBookingOverlaps() {
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(bookingOne));
+        when(bookingRepository.existsOverlap(item.getId(), BookingStatus.APPROVED, bookingOne.getStart(), bookingOne.getEnd(), 1))
+                .thenReturn(true);
+
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.approveOrReject(1, 2, "true", null));
+
+        assertEquals("Вещь уже забронирована на эти даты", exception.getMessage());
+        assertEquals(BookingStatus.WAITING, bookingOne.getStatus());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void approveBookingWhenIfMatchVersionIsStale() {
+        bookingOne.setVersion(4L);
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(bookingOne));
+
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class,
+                () -> bookingService.approveOrReject(1, 2, "true", 3L));
+
+        assertEquals("Версия 3 устарела, текущая версия 4", exception.getMessage());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void approveBookingRetriesAfterConcurrentUpdate() {
+        when(bookingRepository.findById(anyInt())).thenAnswer(invocation ->
+                Optional.of(new Booking(1, bookingOne.getStart(), bookingOne.getEnd(), BookingStatus.WAITING, booker, item)));
+        when(bookingRepository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Booking result = bookingService.approveOrReject(1, 2, "false", null);
+
+        assertEquals(BookingStatus.REJECTED, result.getStatus());
+        verify(bookingRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void approveBookingReportsConflictWhenRetriesExhausted() {
+        when(bookingRepository.findById(anyInt())).thenAnswer(invocation ->
+                Optional.of(new Booking(1, bookingOne.getStart(), bookingOne.getEnd(), BookingStatus.WAITING, booker, item)));
+        when(bookingRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1));
+
+        assertThrows(ConflictException.class, () -> bookingService.approveOrReject(1, 2, "false", null));
+
+        verify(bookingRepository, times(3)).save(any());
+    }
+
+    @Test
+    void rejectBookingFreesInterval() {
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(bookingOne));
+        when(bookingRepository.save(bookingOne)).thenReturn(bookingOne);
+
+        Booking result = bookingService.approveOrReject(1, 2, "false", null);
+
+        assertEquals(BookingStatus.REJECTED, result.getStatus());
+        verify(bookingIntervalIndex).remove(bookingOne);
+    }
 
-        when(itemRepository.getReferenceById(anyInt())).thenReturn(itemTwo);
+    @Test
+    void approveBookingWhenStatusNotWaiting() {
+        bookingApproved.setItem(itemTwo);
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(bookingApproved));
 
-        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.approveOrReject(1, 1, "true"));
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.approveOrReject(1, 1, "true", null));
         assertEquals("Статус нельзя изменить", exception.getMessage());
     }
 
     @Test
     void approveBookingWhenUserNotOwner() {
-        when(bookingRepository.getReferenceById(anyInt())).thenReturn(bookingOne);
-
-        when(itemRepository.getReferenceById(anyInt())).thenReturn(itemTwo);
+        bookingOne.setItem(itemTwo);
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(bookingOne));
 
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> bookingService.approveOrReject(1, 2, "true"));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> bookingService.approveOrReject(1, 2, "true", null));
         assertEquals("Пользователь не является владельцем вещи", exception.getMessage());
     }
 
     @Test
     void getBookingsWhenUserNotOwner() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
-
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        when(bookingRepository.findByBookerAndStatus(anyInt(), eq("WAITING"), eq(pageable))).thenReturn(bookings);
+        when(bookingRepository.findBookingResponses(query(10, false, BookingState.WAITING, 10))).thenReturn(bookings);
 
-        List<Booking> result = bookingService.getBookingsByUserId(10, "WAITING", false, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(10, "WAITING", false, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -112,13 +194,11 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWhenUserOwnerStatusPast() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        when(bookingRepository.findBookingResponses(query(2, true, BookingState.PAST, 10))).thenReturn(bookings);
 
-        when(bookingRepository.findByOwnerIdPastBookings(anyInt(), eq(pageable))).thenReturn(bookings);
-
-        List<Booking> result = bookingService.getBookingsByUserId(2, "PAST", true, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(2, "PAST", true, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -126,13 +206,11 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWhenUserOwnerStatusWaiting() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
-
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        when(bookingRepository.findByOwnerIdAndStatus(anyInt(), eq("WAITING"), eq(pageable))).thenReturn(bookings);
+        when(bookingRepository.findBookingResponses(query(2, true, BookingState.WAITING, 10))).thenReturn(bookings);
 
-        List<Booking> result = bookingService.getBookingsByUserId(2, "WAITING", true, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(2, "WAITING", true, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -140,13 +218,11 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWhenUserOwnerStatusFuture() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        when(bookingRepository.findBookingResponses(query(2, true, BookingState.FUTURE, 10))).thenReturn(bookings);
 
-        when(bookingRepository.findByOwnerIdFutureBookings(anyInt(), eq(pageable))).thenReturn(bookings);
-
-        List<Booking> result = bookingService.getBookingsByUserId(2, "FUTURE", true, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(2, "FUTURE", true, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -154,13 +230,11 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWhenUserNotOwnerStatusFuture() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
-
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        when(bookingRepository.findByBookerIdFutureBookings(eq(1), eq(pageable))).thenReturn(bookings);
+        when(bookingRepository.findBookingResponses(query(1, false, BookingState.FUTURE, 10))).thenReturn(bookings);
 
-        List<Booking> result = bookingService.getBookingsByUserId(1, "FUTURE", false, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(1, "FUTURE", false, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -168,13 +242,11 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWhenUserNotOwnerStatusPast() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
-
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        when(bookingRepository.findByBookerIdPastBookings(eq(1), eq(pageable))).thenReturn(bookings);
+        when(bookingRepository.findBookingResponses(query(1, false, BookingState.PAST, 10))).thenReturn(bookings);
 
-        List<Booking> result = bookingService.getBookingsByUserId(1, "PAST", false, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(1, "PAST", false, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -182,13 +254,11 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWhenUserNotOwnerStatusAll() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        when(bookingRepository.findBookingResponses(query(1, false, BookingState.ALL, 10))).thenReturn(bookings);
 
-        when(bookingRepository.findByBookerOrderByStartDesc(eq(1), eq(pageable))).thenReturn(bookings);
-
-        List<Booking> result = bookingService.getBookingsByUserId(1, "ALL", false, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(1, "ALL", false, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
@@ -201,6 +271,13 @@ class BookingServiceImplTest {
         assertEquals("Unknown state: UNKNOWN", exception.getMessage());
     }
 
+    @Test
+    void getBookingsWhenStateIsStatusWithoutFilter() {
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.getBookingsByUserId(1, "APPROVED", true, 1, 10));
+
+        assertEquals("Unknown state: APPROVED", exception.getMessage());
+    }
+
     @Test
     void getBookingsWhenBookingsIsEmpty() {
         NotFoundException exception = assertThrows(NotFoundException.class, () -> bookingService.getBookingsByUserId(1, "ALL", true, 1, 10));
@@ -237,10 +314,9 @@ class BookingServiceImplTest {
 
     @Test
     void createBookingWhenUserExistsItemExistsAndBookingDatesValid() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(bookingMapper.bookingForCreate(any(), any(), any())).thenReturn(bookingForSave);
-        when(bookingRepository.save(bookingForSave)).thenReturn(bookingOne);
+        when(bookingRepository.insertIfBookable(booker.getId(), item.getId(), bookingForSave.getStart(), bookingForSave.getEnd()))
+                .thenReturn(1);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         Booking savedBooking = bookingService.createBooking(bookingForSave);
 
@@ -249,44 +325,186 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.WAITING, savedBooking.getStatus());
         assertEquals(booker.getId(), savedBooking.getBooker().getId());
         assertEquals(item.getId(), savedBooking.getItem().getId());
+        assertEquals(item.getName(), savedBooking.getItem().getName());
+
+        verify(bookingRepository, never()).save(any());
+        verify(userRepository, never()).findById(anyInt());
+        verify(bookingIntervalIndex).add(savedBooking);
+    }
 
-        verify(bookingRepository).save(any());
+    @Test
+    void createBookingWhenDatesOverlapExistingBooking() {
+        when(bookingIntervalIndex.overlaps(item.getId(), bookingForSave.getStart(), bookingForSave.getEnd())).thenReturn(true);
+
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.createBooking(bookingForSave));
+
+        assertEquals("Вещь уже забронирована на эти даты", exception.getMessage());
+        verify(bookingRepository, never()).insertIfBookable(any(), any(), any(), any());
+    }
+
+    @Test
+    void createBookingWhenUserDoesNotExist() {
+        when(bookingRepository.insertIfBookable(any(), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsById(booker.getId())).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingForSave));
+
+        assertEquals("Пользователь не найден", exception.getMessage());
     }
 
     @Test
     void createBookingWhenUserExistsItemDoesNotExists() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyInt())).thenThrow(new NotFoundException("Вещь не найдена"));
+        when(bookingRepository.insertIfBookable(any(), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsById(booker.getId())).thenReturn(true);
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingForSave));
 
         assertEquals("Вещь не найдена", exception.getMessage());
     }
 
+    @Test
+    void createBookingWhenItemNotAvailable() {
+        when(bookingRepository.insertIfBookable(any(), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsById(booker.getId())).thenReturn(true);
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(new Item(1, "Test", "Test", owner, false)));
+
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.createBooking(bookingForSave));
+
+        assertEquals("Вещь не доступна", exception.getMessage());
+    }
+
+    @Test
+    void createBookingWhenBookerOwnsUnavailableItem() {
+        when(bookingRepository.insertIfBookable(any(), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsById(booker.getId())).thenReturn(true);
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(new Item(1, "Test", "Test", booker, false)));
+
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.createBooking(bookingForSave));
+
+        assertEquals("Вещь не доступна", exception.getMessage());
+    }
+
+    @Test
+    void createBookingWhenBookerOwnsItem() {
+        when(bookingRepository.insertIfBookable(any(), any(), any(), any())).thenReturn(null);
+        when(userRepository.existsById(booker.getId())).thenReturn(true);
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(itemTwo));
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> bookingService.createBooking(bookingForSave));
+
+        assertEquals("Нельзя забронировать свою вещь", exception.getMessage());
+    }
+
     @Test
     void createBookingWhenUserExistsItemExistsBookingDatesNotValid() {
         bookingForSave.setStart(LocalDateTime.now().minusDays(1));
         bookingForSave.setEnd(LocalDateTime.now().plusDays(3));
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-
         AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.createBooking(bookingForSave));
 
         assertEquals("Не верные даты", exception.getMessage());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void getBookingsWhenUserOwnerSearchStatusAllPaginationValid() {
-        List<Booking> bookings = Collections.singletonList(bookingOne);
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
 
-        PageRequest pageable = PageRequest.of(1 / 10, 10);
+        when(bookingRepository.findBookingResponses(query(1, true, BookingState.ALL, 10))).thenReturn(bookings);
 
-        when(bookingRepository.findByOwnerId(anyInt(), eq(pageable))).thenReturn(bookings);
-
-        List<Booking> result = bookingService.getBookingsByUserId(1, "ALL", true, 1, 10);
+        List<BookingResponse> result = bookingService.getBookingsByUserId(1, "ALL", true, 1, 10);
 
         assertEquals(bookings.size(), result.size());
         assertEquals(bookings.get(0), result.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsWhenSizeMissingUsesBoundedPageWithoutFullTableLoad() {
+        List<BookingResponse> bookings = Collections.singletonList(responseOne);
+
+        when(bookingRepository.findBookingResponses(query(1, false, BookingState.ALL, 1000))).thenReturn(bookings);
+
+        List<BookingResponse> result = bookingService.getBookingsByUserId(1, "ALL", false, null, null);
+
+        assertEquals(bookings, result);
+        verify(bookingRepository, never()).findAll();
+        verify(bookingRepository, never()).count();
+    }
+
+    @Test
+    void streamBookingsStopsAfterShortChunk() {
+        List<BookingResponse> chunk = Collections.singletonList(responseOne);
+
+        when(bookingRepository.findBookingResponses(query(2, true, BookingState.ALL, 500))).thenReturn(chunk);
+
+        List<List<BookingResponse>> result = bookingService.streamBookingsByUserId(2, "ALL", true).collect(Collectors.toList());
+
+        assertEquals(List.of(chunk), result);
+        verify(bookingRepository, times(1)).findBookingResponses(any());
+        verify(bookingRepository, never()).findAll();
+    }
+
+    @Test
+    void getBookingsAfterCursorDecodesSeekKey() {
+        BookingCursor cursor = BookingCursor.of(responseOne);
+
+        when(bookingRepository.findBookingResponses(query(1, false, BookingState.FUTURE, 10).toBuilder().cursor(cursor).build())).thenReturn(List.of(responseApproved));
+
+        List<BookingResponse> result = bookingService.getBookingsByUserIdAfter(1, "FUTURE", false, cursor.encode(), 10);
+
+        assertEquals(List.of(responseApproved), result);
+    }
+
+    @Test
+    void getBookingsAfterCursorWhenCursorMalformed() {
+        ValidateException exception = assertThrows(ValidateException.class, () -> bookingService.getBookingsByUserIdAfter(1, "ALL", false, "not-a-cursor", 10));
+
+        assertEquals("Некорректный курсор: not-a-cursor", exception.getMessage());
+    }
+
+    @Test
+    void streamBookingsWhenStateUnknown() {
+        AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> bookingService.streamBookingsByUserId(1, "UNKNOWN", false));
+
+        assertEquals("Unknown state: UNKNOWN", exception.getMessage());
+    }
+
+    @Test
+    void approveOrRejectAllReportsBookingsRemovedBeforeReRead() {
+        BookingSlot first = slot(1, BookingStatus.WAITING);
+        BookingSlot second = slot(2, BookingStatus.WAITING);
+        when(bookingRepository.findSlotsByIds(any()))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(slot(1, BookingStatus.REJECTED)));
+        when(bookingRepository.decideWaiting(List.of(), List.of(1, 2))).thenReturn(1);
+
+        List<BookingBatchResult> results = bookingService.approveOrRejectAll(owner.getId(),
+                List.of(new BookingDecision(1, false), new BookingDecision(2, false)));
+
+        assertEquals(BookingStatus.REJECTED, results.get(0).getStatus());
+        assertNull(results.get(1).getStatus());
+        assertEquals("Бронирование не найдено", results.get(1).getError());
+        verify(bookingIntervalIndex).remove(item.getId(), 1, first.getStart());
+        verify(bookingIntervalIndex, never()).remove(item.getId(), 2, second.getStart());
+    }
+
+    private BookingSlot slot(Integer id, BookingStatus status) {
+        return new SpelAwareProxyProjectionFactory().createProjection(BookingSlot.class, Map.of(
+                "id", id,
+                "itemId", item.getId(),
+                "ownerId", owner.getId(),
+                "status", status,
+                "start", bookingOne.getStart(),
+                "end", bookingOne.getEnd()));
+    }
+
+    private BookingQuery query(Integer userId, boolean isOwner, BookingState state, int limit) {
+        return BookingQuery.builder()
+                .userId(userId)
+                .owner(isOwner)
+                .state(state)
+                .limit(limit)
+                .build();
+    }
+}
@@ -0,0 +1,203 @@
+package ru.practicum.shareit.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
+import ru.practicum.shareit.booking.dto.BookingDecision;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.version.OptimisticRetry;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingServiceImpl.class, BookingIntervalIndex.class, ItemLocks.class, OptimisticRetry.class, BookingMapper.class})
+class BookingServiceQueryCountTest {
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private BookingMapper bookingMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    User owner = new User("owner@gmail.com", "Owner");
+    User booker = new User("booker@gmail.com", "Booker");
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        userRepository.save(owner);
+        userRepository.save(booker);
+
+        for (int i = 0; i < 10; i++) {
+            User itemOwner = i % 2 == 0 ? owner : userRepository.save(new User("owner" + i + "@gmail.com", "Owner"));
+            Item item = itemRepository.save(new Item("Item" + i, "Description", itemOwner, true));
+            bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING,
+                    LocalDateTime.now().plusDays(i + 1), LocalDateTime.now().plusDays(i + 2)));
+            bookingRepository.save(new Booking(item, booker, BookingStatus.APPROVED,
+                    LocalDateTime.now().minusDays(i + 2), LocalDateTime.now().minusDays(i + 1)));
+        }
+    }
+
+    @Test
+    void ownerBookingListIsOneJoinedQuery() {
+        long queries = countQueries(() -> {
+            List<BookingResponse> bookings = bookingService.getBookingsByUserId(owner.getId(), "ALL", true, 0, 20);
+            assertEquals(10, bookings.size());
+            bookings.forEach(booking -> assertNotNull(booking.getItem().getName()));
+        });
+
+        assertEquals(1, queries);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void bookerBookingListIsOneJoinedQuery() {
+        long queries = countQueries(() -> {
+            List<BookingResponse> bookings = bookingService.getBookingsByUserId(booker.getId(), "WAITING", false, 0, 20);
+            assertEquals(10, bookings.size());
+            bookings.forEach(booking -> assertNotNull(booking.getItem().getName()));
+        });
+
+        assertEquals(1, queries);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void streamedBookingChunkIsOneJoinedQuery() {
+        long queries = countQueries(() -> {
+            List<BookingResponse> bookings = bookingService.streamBookingsByUserId(booker.getId(), "ALL", false)
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+            assertEquals(20, bookings.size());
+        });
+
+        assertEquals(1, queries);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getBookingLoadsItemAndBookerTogether() {
+        Integer bookingId = bookingRepository.findAll().get(0).getId();
+
+        long queries = countQueries(() -> {
+            Booking booking = bookingService.getBooking(bookingId, booker.getId());
+            assertNotNull(bookingMapper.bookingForResponse(booking).getItem().getName());
+        });
+
+        assertEquals(1, queries);
+    }
+
+    @Test
+    void createBookingReadsOnlyItemAfterConditionalInsert() {
+        Item item = itemRepository.save(new Item("Дрель", "Мощная", owner, true));
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        bookingIntervalIndex.overlaps(item.getId(), start, start.plusDays(1));
+
+        long queries = countQueries(() -> {
+            Booking booking = bookingService.createBooking(new Booking(item, start, start.plusDays(1), booker));
+            assertEquals("Дрель", bookingMapper.bookingForResponse(booking).getItem().getName());
+        });
+
+        assertEquals(1, queries);
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+        Booking saved = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(BookingStatus.WAITING, saved.getStatus());
+        assertEquals(booker.getId(), saved.getBooker().getId());
+    }
+
+    @Test
+    void batchDecisionChecksOwnershipAndUpdatesWithConstantStatements() {
+        List<Booking> waiting = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                .collect(Collectors.toList());
+        List<BookingDecision> decisions = new ArrayList<>();
+        for (int i = 0; i < waiting.size(); i++) {
+            decisions.add(new BookingDecision(waiting.get(i).getId(), i % 4 == 0));
+        }
+        decisions.add(new BookingDecision(waiting.get(0).getId(), true));
+        decisions.add(new BookingDecision(-1, false));
+
+        List<BookingBatchResult> results = new ArrayList<>();
+        long queries = countQueries(() -> results.addAll(bookingService.approveOrRejectAll(owner.getId(), decisions)));
+
+        assertEquals(4, queries);
+        assertEquals(12, results.size());
+        entityManager.clear();
+        for (int i = 0; i < waiting.size(); i++) {
+            Booking booking = bookingRepository.findById(waiting.get(i).getId()).orElseThrow();
+            BookingBatchResult result = results.get(i);
+            if (booking.getItem().getOwner().getId().equals(owner.getId())) {
+                assertNull(result.getError());
+                assertEquals(booking.getStatus(), result.getStatus());
+                assertEquals(i % 4 == 0 ? BookingStatus.APPROVED : BookingStatus.REJECTED, booking.getStatus());
+                assertEquals(1L, booking.getVersion());
+            } else {
+                assertEquals("Пользователь не является владельцем вещи", result.getError());
+                assertEquals(BookingStatus.WAITING, booking.getStatus());
+            }
+        }
+        assertEquals("Бронирование указано повторно", results.get(10).getError());
+        assertEquals("Бронирование не найдено", results.get(11).getError());
+    }
+
+    @Test
+    void batchDecisionRejectsApprovalsOverlappingEarlierOnesInSameBatch() {
+        Item item = itemRepository.save(new Item("Дрель", "Мощная", owner, true));
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        Booking first = bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING, start, start.plusDays(2)));
+        Booking second = bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING, start.plusDays(1), start.plusDays(3)));
+        Booking third = bookingRepository.save(new Booking(item, booker, BookingStatus.WAITING, start.plusDays(2), start.plusDays(4)));
+
+        List<BookingBatchResult> results = bookingService.approveOrRejectAll(owner.getId(), List.of(
+                new BookingDecision(first.getId(), true),
+                new BookingDecision(second.getId(), true),
+                new BookingDecision(third.getId(), true)));
+
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertEquals("Вещь уже забронирована на эти даты", results.get(1).getError());
+        assertEquals(BookingStatus.APPROVED, results.get(2).getStatus());
+    }
+
+    private long countQueries(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
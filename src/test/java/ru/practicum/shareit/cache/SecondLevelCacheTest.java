@@ -0,0 +1,113 @@
+package ru.practicum.shareit.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.comments.dto.CommentMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemCommentCache;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserServiceImpl.class, EntityCacheEvictor.class, ItemCommentCache.class, CommentMapper.class,
+        UserIdRegistry.class})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserServiceImpl userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(new User("cached@gmail.com", "Cached"));
+        item = itemRepository.save(new Item("Дрель", "Мощная", user, true));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedFindByIdIsServedFromCache() {
+        userRepository.findById(user.getId());
+        itemRepository.findById(item.getId());
+        userRepository.findById(user.getId());
+        itemRepository.findById(item.getId());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheMissCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertTrue(entityManagerFactory.getCache().contains(User.class, user.getId()));
+    }
+
+    @Test
+    void updateUserRefreshesCachedEntry() {
+        userRepository.findById(user.getId());
+
+        userService.updateUser(user.getId(), new User(null, "Renamed"));
+
+        assertEquals("Renamed", userRepository.findById(user.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void evictorDropsEntryChangedBehindHibernate() {
+        itemRepository.findById(item.getId());
+        jdbcTemplate.update("update items set name = 'Пила' where id = ?", item.getId());
+
+        entityCacheEvictor.evict(Item.class, item.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertEquals("Пила", itemRepository.findById(item.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void deleteUserEvictsCachedEntry() {
+        itemRepository.deleteAll();
+        userRepository.findById(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(User.class, user.getId()));
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+}
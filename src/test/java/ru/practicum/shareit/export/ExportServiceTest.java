@@ -0,0 +1,120 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.service.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+import ru.practicum.shareit.user.service.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({ExportService.class, ExportRepository.class, UserIdRegistry.class, BookingMapper.class, ItemMapper.class,
+        JacksonAutoConfiguration.class})
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    User owner = new User("owner@gmail.com", "Owner");
+    User booker = new User("booker@gmail.com", "Booker");
+
+    Item drill;
+    Item saw;
+    Booking past;
+    Booking future;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(owner);
+        userRepository.save(booker);
+        Request request = requestRepository.save(new Request("Нужна пила", booker, LocalDateTime.now()));
+        drill = itemRepository.save(new Item("Дрель", "Мощная, с \"ударом\"", owner, true));
+        saw = itemRepository.save(new Item("Пила", "Ручная", owner, false, request));
+        itemRepository.save(new Item("Чужая", "Не выгружается", booker, true));
+        past = bookingRepository.save(new Booking(drill, booker, BookingStatus.APPROVED,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+        future = bookingRepository.save(new Booking(saw, booker, BookingStatus.WAITING,
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+    }
+
+    @Test
+    void exportOwnerBookingsAsNdjson() throws IOException {
+        String[] lines = write(exportService.exportOwnerBookings(owner.getId(), ExportFormat.NDJSON)).split("\n");
+
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(future.getId(), first.get("id").asInt());
+        assertEquals("WAITING", first.get("status").asText());
+        assertEquals(booker.getId(), first.get("booker").get("id").asInt());
+        assertEquals("Пила", first.get("item").get("name").asText());
+        assertEquals(past.getId(), objectMapper.readTree(lines[1]).get("id").asInt());
+    }
+
+    @Test
+    void exportOwnerItemsAsCsv() throws IOException {
+        String[] lines = write(exportService.exportOwnerItems(owner.getId(), ExportFormat.CSV)).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("id,name,description,available,requestId", lines[0]);
+        assertEquals(drill.getId() + ",Дрель,\"Мощная, с \"\"ударом\"\"\",true,", lines[1]);
+        assertEquals(saw.getId() + ",Пила,Ручная,false," + saw.getRequest().getId(), lines[2]);
+    }
+
+    @Test
+    void exportForUnknownUser() {
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> exportService.exportOwnerBookings(999, ExportFormat.CSV));
+
+        assertEquals("Пользователь не найден", exception.getMessage());
+    }
+
+    @Test
+    void parseFormat() {
+        assertEquals(ExportFormat.CSV, exportService.parseFormat("csv"));
+        assertEquals(ExportFormat.NDJSON, exportService.parseFormat("NDJSON"));
+
+        ValidateException exception = assertThrows(ValidateException.class, () -> exportService.parseFormat("xml"));
+        assertEquals("Неизвестный формат выгрузки: xml", exception.getMessage());
+    }
+
+    private String write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body.writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
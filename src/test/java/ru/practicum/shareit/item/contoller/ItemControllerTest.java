@@ -12,10 +12,13 @@ import ru.practicum.shareit.comments.dto.CommentMapper;
 import ru.practicum.shareit.comments.dto.CommentRequest;
 import ru.practicum.shareit.comments.dto.CommentResponse;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailability;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
 import ru.practicum.shareit.item.dto.ItemRequest;
 import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +29,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +45,8 @@ class ItemControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private ItemServiceImpl itemService;
+    @MockBean
+    private UserIdRegistry userIdRegistry;
 
     @MockBean
     private CommentMapper commentMapper;
@@ -72,6 +79,34 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(itemResponse.getAvailable())));
     }
 
+    @Test
+    void getAvailabilityReturnsFreeWindows() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 15);
+        LocalDateTime to = from.plusDays(1);
+        when(itemService.getAvailability(itemId, from, to))
+                .thenReturn(List.of(new ItemAvailability(from, from.plusHours(1)), new ItemAvailability(from.plusHours(2), to)));
+
+        mockMvc.perform(get("/items/{id}/availability", itemId)
+                        .header("X-Sharer-User-Id", String.valueOf(userId))
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T00:00:15")))
+                .andExpect(jsonPath("$[1].end", is("2030-01-02T00:00:15")));
+    }
+
+    @Test
+    void requestFromUnknownUserIsRejectedBeforeService() throws Exception {
+        doThrow(new NotFoundException("Пользователь не найден")).when(userIdRegistry).check(99);
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", "99"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(itemService);
+    }
+
     @Test
     void createItemWhenItemValid() throws Exception {
         when(itemService.createItem(any(Item.class))).thenReturn(item);
@@ -88,11 +123,29 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(item.getAvailable())));
     }
 
+    @Test
+    void createItemsReturnsResultPerRow() throws Exception {
+        List<ItemRequest> batch = List.of(itemReq, new ItemRequest("", "Test", true));
+        when(itemService.createItems(userId, batch)).thenReturn(List.of(
+                new ItemBatchResult(0, itemResponse, null),
+                new ItemBatchResult(1, null, "Поле названия не может быть пустым")));
+
+        mockMvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", String.valueOf(userId))
+                        .content(objectMapper.writeValueAsString(batch))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].item.id", is(itemId)))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Поле названия не может быть пустым")));
+    }
+
     @Test
     void updateItemWhenUserNotTheOwnerItem() throws Exception {
-        when(itemService.updateItem(item)).thenThrow(new NotFoundException("Пользователь " + userId + " не является владельцем  вещи " + itemId));
+        when(itemService.updateItem(item, null)).thenThrow(new NotFoundException("Пользователь " + userId + " не является владельцем  вещи " + itemId));
 
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.updateItem(item));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.updateItem(item, null));
 
         mockMvc.perform(patch("/items/{id}", itemId)
                         .header("X-Sharer-User-Id", String.valueOf(userId))
@@ -128,7 +181,7 @@ class ItemControllerTest {
         Integer from = 0;
         Integer size = 10;
 
-        when(itemService.searchBySubstring(text, text, from, size)).thenReturn(items);
+        when(itemService.searchBySubstring(text, from, size)).thenReturn(items);
 
         mockMvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", String.valueOf(userId))
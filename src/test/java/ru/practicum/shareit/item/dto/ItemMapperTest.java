@@ -2,11 +2,10 @@ package ru.practicum.shareit.item.dto;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.comments.dto.CommentResponse;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +13,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -50,20 +50,26 @@ class ItemMapperTest {
     void itemForOwnerWhenBookingsExists() {
         Item item = new Item(1, "Test Item", "Test Description", true, Collections.emptyList());
 
-        User booker = new User();
+        ItemResponse result = itemMapper.itemForOwner(item, new ArrayList<>(), bookingShort(1, 3), bookingShort(2, 4));
 
-        Booking bookingP = new Booking(1, booker);
-
-        Booking bookingF = new Booking(2, booker);
+        assertEquals(result.getId(), item.getId());
+        assertEquals(result.getDescription(), item.getDescription());
+        assertEquals(new ItemResponse.ItemForOwner(1, 3), result.getLastBooking());
+        assertEquals(3, result.getLastBooking().getBookerId());
+        assertEquals(4, result.getNextBooking().getBookerId());
+    }
 
-        List<Booking> bookings = Collections.singletonList(bookingP);
-        List<Booking> bookingsF = Collections.singletonList(bookingF);
-        List<Booking> bookingsP = Collections.singletonList(bookingP);
+    @Test
+    void withOwnerDetailsFillsProjectedItem() {
+        ItemResponse item = new ItemResponse(1, "Test Item", "Test Description", true, 5);
 
-        ItemResponse result = itemMapper.itemForOwner(item, new ArrayList<>(), bookings, bookingsP, bookingsF);
+        ItemResponse result = itemMapper.withOwnerDetails(item, new ArrayList<>(), bookingShort(1, 3), null);
 
-        assertEquals(result.getId(), item.getId());
-        assertEquals(result.getDescription(), item.getDescription());
+        assertEquals(item, result);
+        assertEquals(5, result.getRequestId());
+        assertEquals(3, result.getLastBooking().getBookerId());
+        assertNull(result.getNextBooking());
+        assertTrue(result.getComments().isEmpty());
     }
 
     @Test
@@ -96,16 +102,33 @@ class ItemMapperTest {
         CommentResponse comment1 = new CommentResponse(1, "Comment 1", "dasd", LocalDateTime.now().minusDays(1));
         comments.add(comment1);
 
-        List<Booking> bookings = Collections.emptyList();
-        List<Booking> pastBookings = Collections.emptyList();
-        List<Booking> futureBookings = Collections.emptyList();
-
-        ItemResponse result = itemMapper.itemForOwner(item, comments, bookings, pastBookings, futureBookings);
+        ItemResponse result = itemMapper.itemForOwner(item, comments, null, null);
 
         assertEquals(1, result.getId());
         assertEquals("Test Item", result.getName());
         assertEquals("Test Description", result.getDescription());
         assertTrue(result.getAvailable());
         assertEquals(result.getComments().get(0), comments.get(0));
+        assertNull(result.getLastBooking());
+        assertNull(result.getNextBooking());
+    }
+
+    private BookingShort bookingShort(Integer id, Integer bookerId) {
+        return new BookingShort() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Integer getItemId() {
+                return 1;
+            }
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.comments.dto.CommentMapper;
+import ru.practicum.shareit.comments.dto.CommentResponse;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.CommentRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCommentCacheTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    private ItemCommentCache itemCommentCache;
+
+    User author = new User(2, "author@gmail.com", "Author");
+
+    Item drill = new Item(1, "Дрель", "Ударная дрель", true);
+    Item saw = new Item(3, "Пила", "Ручная", true);
+
+    Comment first = comment(10, "Отличная дрель", drill);
+    Comment second = comment(11, "Пила тупая", saw);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        itemCommentCache = new ItemCommentCache(commentRepository, new CommentMapper(), 100, Duration.ofMinutes(10),
+                mock(ObjectProvider.class));
+    }
+
+    @Test
+    void getLoadsCommentsOnce() {
+        when(commentRepository.findByItemIdAndOwnerId(drill.getId())).thenReturn(List.of(first));
+
+        List<CommentResponse> comments = itemCommentCache.get(drill.getId());
+
+        assertEquals(List.of(10), ids(comments));
+        assertEquals("Author", comments.get(0).getAuthorName());
+        assertEquals(comments, itemCommentCache.get(drill.getId()));
+        verify(commentRepository, times(1)).findByItemIdAndOwnerId(drill.getId());
+    }
+
+    @Test
+    void getAllLoadsOnlyMissingItemsInOneQuery() {
+        when(commentRepository.findByItemIdAndOwnerId(drill.getId())).thenReturn(List.of(first));
+        when(commentRepository.findByItemIdIn(List.of(saw.getId(), 5))).thenReturn(List.of(second));
+        itemCommentCache.get(drill.getId());
+
+        Map<Integer, List<CommentResponse>> comments = itemCommentCache.getAll(List.of(drill.getId(), saw.getId(), 5));
+
+        assertEquals(List.of(10), ids(comments.get(drill.getId())));
+        assertEquals(List.of(11), ids(comments.get(saw.getId())));
+        assertEquals(List.of(), comments.get(5));
+        verify(commentRepository, times(1)).findByItemIdIn(List.of(saw.getId(), 5));
+    }
+
+    @Test
+    void addAppendsToCachedListOnce() {
+        when(commentRepository.findByItemIdAndOwnerId(drill.getId())).thenReturn(List.of(first));
+        itemCommentCache.get(drill.getId());
+        CommentResponse added = new CommentResponse(12, "Ещё раз брал", "Author", LocalDateTime.now());
+
+        itemCommentCache.add(drill.getId(), added);
+        itemCommentCache.add(drill.getId(), added);
+
+        assertEquals(List.of(10, 12), ids(itemCommentCache.get(drill.getId())));
+        verify(commentRepository, times(1)).findByItemIdAndOwnerId(drill.getId());
+    }
+
+    @Test
+    void evictForcesReload() {
+        when(commentRepository.findByItemIdAndOwnerId(drill.getId())).thenReturn(List.of(first));
+        itemCommentCache.get(drill.getId());
+
+        itemCommentCache.evict(drill.getId());
+        itemCommentCache.get(drill.getId());
+
+        verify(commentRepository, times(2)).findByItemIdAndOwnerId(drill.getId());
+    }
+
+    private Comment comment(int id, String text, Item item) {
+        Comment comment = new Comment(id, text, author, LocalDateTime.now());
+        comment.setItem(item);
+        return comment;
+    }
+
+    private static List<Integer> ids(List<CommentResponse> comments) {
+        return comments.stream().map(CommentResponse::getId).collect(Collectors.toList());
+    }
+}
@@ -7,6 +7,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemForRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.service.RequestRepository;
@@ -16,9 +18,12 @@ import ru.practicum.shareit.user.service.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 @DataJpaTest
@@ -59,32 +64,91 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void findByOwnerId() {
+    void searchAvailable() {
+        String str = "es";
+
         PageRequest page = PageRequest.of(1 / 10, 10);
 
-        List<Item> users = itemRepository.findByOwnerId(user.getId(), page);
+        List<ItemResponse> items = itemRepository.searchAvailable(str, page);
 
-        assertFalse(users.isEmpty());
-        assertEquals(users.get(0).getOwner().getId(), user.getId());
+        assertEquals(items.size(), 1);
+        assertEquals(items.get(0).getName(), item.getName());
     }
 
     @Test
-    void findByNameContainingOrDescriptionContainingIgnoreCase() {
-        String str = "es";
+    void searchAvailableIgnoresCaseAndSkipsUnavailableItems() {
+        Item hidden = itemRepository.save(new Item("Дрель", "Ударная", user, false));
+        Item shown = itemRepository.save(new Item("Отвертка", "ДРЕЛЬ не нужна", user, true));
 
-        PageRequest page = PageRequest.of(1 / 10, 10);
+        PageRequest page = PageRequest.of(0, 10);
 
-        List<Item> items = itemRepository.findByNameContainingOrDescriptionContainingIgnoreCase(str, str, page);
+        List<ItemResponse> items = itemRepository.searchAvailable("дРеЛь", page);
 
-        assertEquals(items.size(), 1);
-        assertEquals(items.get(0).getName(), item.getName());
+        assertEquals(1, items.size());
+        assertEquals(shown.getId(), items.get(0).getId());
+        assertFalse(items.stream().anyMatch(found -> found.getId().equals(hidden.getId())));
+    }
+
+    @Test
+    void searchAvailableTreatsEscapedWildcardsLiterally() {
+        Item discount = itemRepository.save(new Item("Скидка 50%", "Провод_удлинитель", user, true));
+
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertEquals(List.of(discount.getId()), itemRepository.searchAvailable("\\_", page).stream()
+                .map(ItemResponse::getId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(discount.getId()), itemRepository.searchAvailable("50\\%", page).stream()
+                .map(ItemResponse::getId)
+                .collect(Collectors.toList()));
+        assertTrue(itemRepository.searchAvailable("5\\%0", page).isEmpty());
+    }
+
+    @Test
+    void findAvailableSkipsUnavailableItemsAndOrdersById() {
+        itemRepository.save(new Item("Дрель", "Ударная", user, false));
+        Item shown = itemRepository.save(new Item("Отвертка", "Крестовая", user, true));
+
+        List<ItemResponse> items = itemRepository.findAvailable();
+
+        assertEquals(List.of(item.getId(), itemTwo.getId(), shown.getId()),
+                items.stream().map(ItemResponse::getId).collect(Collectors.toList()));
+        assertEquals("Отвертка", items.get(2).getName());
+        assertEquals("Крестовая", items.get(2).getDescription());
     }
 
     @Test
-    void findByRequestId() {
-        Item item2 = itemRepository.findByRequestId(request.getId());
+    void findResponsesByOwnerIdOrdersById() {
+        Item second = itemRepository.save(new Item("Second", "Test", user, true, request));
+
+        List<ItemResponse> items = itemRepository.findResponsesByOwnerId(user.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(item.getId(), itemTwo.getId(), second.getId()),
+                items.stream().map(ItemResponse::getId).collect(Collectors.toList()));
+        assertEquals(request.getId(), items.get(0).getRequestId());
+        assertNull(items.get(1).getRequestId());
+    }
+
+    @Test
+    void findResponsesByIdInKeepsIdOrder() {
+        List<ItemResponse> items = itemRepository.findResponsesByIdIn(List.of(itemTwo.getId(), item.getId()));
+
+        assertEquals(List.of(item.getId(), itemTwo.getId()),
+                items.stream().map(ItemResponse::getId).collect(Collectors.toList()));
+        assertEquals(item.getName(), items.get(0).getName());
+    }
+
+    @Test
+    void findForRequestsReturnsEveryAnsweringItem() {
+        Request otherRequest = requestRepository.save(new Request("other", userTwo, LocalDateTime.now()));
+        Item second = itemRepository.save(new Item("Second", "Test", user, true, request));
+        Item other = itemRepository.save(new Item("Other", "Test", user, true, otherRequest));
+
+        List<ItemForRequest> items = itemRepository.findForRequests(List.of(request.getId(), otherRequest.getId()));
 
-        assertEquals(item.getId(), item2.getId());
-        assertEquals(item.getName(), item2.getName());
+        assertEquals(List.of(item.getId(), second.getId(), other.getId()),
+                items.stream().map(ItemForRequest::getId).collect(Collectors.toList()));
+        assertEquals(List.of(request.getId(), request.getId(), otherRequest.getId()),
+                items.stream().map(ItemForRequest::getRequestId).collect(Collectors.toList()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    User owner = new User(1, "owner@gmail.com", "Owner");
+
+    Item drill = new Item(1, "Дрель", "Ударная дрель", owner, true);
+    Item screwdriver = new Item(2, "Отвертка", "Крестовая", owner, true);
+    Item hammer = new Item(4, "Молоток", "Для дрели не подходит", owner, true);
+
+    PageRequest page = PageRequest.of(0, 10);
+
+    @BeforeEach
+    void setUp() {
+        itemSearchIndex = new ItemSearchIndex(itemRepository, true);
+    }
+
+    @Test
+    void searchMatchesSubstringIgnoringCase() {
+        when(itemRepository.findAvailable()).thenReturn(responses(drill, screwdriver, hammer));
+
+        assertEquals(List.of(1, 4), itemSearchIndex.search("ДрЕл", page));
+        assertEquals(List.of(1), itemSearchIndex.search("ударная дрель", page));
+        assertEquals(List.of(2), itemSearchIndex.search("оТв", page));
+        assertTrue(itemSearchIndex.search("дрельотвертка", page).isEmpty());
+    }
+
+    @Test
+    void searchDoesNotMatchAcrossNameAndDescription() {
+        when(itemRepository.findAvailable()).thenReturn(responses(screwdriver));
+
+        assertTrue(itemSearchIndex.search("каКрест", page).isEmpty());
+    }
+
+    @Test
+    void searchPagesOverMatches() {
+        when(itemRepository.findAvailable()).thenReturn(responses(drill, hammer));
+
+        assertEquals(List.of(4), itemSearchIndex.search("дрел", PageRequest.of(1, 1)));
+    }
+
+    @Test
+    void indexIsBuiltOnceAndUpdatedIncrementally() {
+        when(itemRepository.findAvailable()).thenReturn(responses(drill));
+
+        assertEquals(List.of(1), itemSearchIndex.search("дрел", page));
+
+        itemSearchIndex.index(new Item(5, "Дрель", "Аккумуляторная", owner, true));
+        itemSearchIndex.index(new Item(1, "Дрель", "Ударная", owner, false));
+
+        assertEquals(List.of(5), itemSearchIndex.search("дрел", page));
+
+        itemSearchIndex.remove(5);
+
+        assertTrue(itemSearchIndex.search("дрел", page).isEmpty());
+        assertTrue(itemSearchIndex.search("акк", page).isEmpty());
+        verify(itemRepository, times(1)).findAvailable();
+    }
+
+    @Test
+    void disabledIndexIgnoresUpdates() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemRepository, false);
+
+        disabled.index(drill);
+        disabled.remove(drill.getId());
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    private static List<ItemResponse> responses(Item... items) {
+        return Arrays.stream(items)
+                .map(item -> new ItemResponse(item.getId(), item.getName(), item.getDescription(), item.getAvailable()))
+                .collect(Collectors.toList());
+    }
+}
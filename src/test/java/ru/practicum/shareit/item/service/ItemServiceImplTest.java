@@ -4,29 +4,47 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingResponse;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingRepository;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.comments.dto.CommentMapper;
 import ru.practicum.shareit.comments.dto.CommentResponse;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.exception.AccessibilityErrorException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemRequest;
+import ru.practicum.shareit.item.dto.ItemResponse;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.service.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.CommentRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.version.OptimisticRetry;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -53,6 +71,30 @@ class ItemServiceImplTest {
     @Mock
     private ItemMapper itemMapper;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Mock
+    private ItemCommentCache itemCommentCache;
+
+    @Mock
+    private UserIdRegistry userIdRegistry;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(), 3);
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
 
     User user = new User(1, "dsaadsd", "author");
     User userTwo = new User(7, "dsaadsd", "author");
@@ -66,15 +108,17 @@ class ItemServiceImplTest {
 
     List<Item> items = List.of(item);
 
+    ItemResponse itemResponse = new ItemResponse(1, "Test Item", "Test Description", true, (Integer) null);
+    List<ItemResponse> itemResponses = List.of(itemResponse);
+
     Comment comment = new Comment(1, "dasd", item, userTwo, LocalDateTime.now().minusDays(1));
     List<Comment> comments = List.of(comment);
 
-    Booking bookingLast = new Booking();
-    Booking bookingFuture = new Booking();
+    BookingShort bookingLast = mock(BookingShort.class);
+    BookingShort bookingFuture = mock(BookingShort.class);
 
-    List<Booking> bookings = List.of(bookingLast, bookingFuture);
-    List<Booking> pastBookings = List.of(bookingLast);
-    List<Booking> futureBookings = List.of(bookingFuture);
+    List<BookingResponse> pastBookings = List.of(new BookingResponse());
+    List<BookingResponse> futureBookings = List.of(new BookingResponse());
 
     @Test
     void paginationNotValid() {
@@ -93,7 +137,7 @@ class ItemServiceImplTest {
 
     @Test
     void searchWhenSubstringEmpty() {
-        List<Item> emptyList = itemService.searchBySubstring("", "", 10, 10);
+        List<Item> emptyList = itemService.searchBySubstring("", 10, 10);
 
         assertEquals(emptyList, new ArrayList<>());
     }
@@ -102,15 +146,30 @@ class ItemServiceImplTest {
     void getAllItemsByUserId() {
         PageRequest page = PageRequest.of(1 / 10, 10);
 
-        when(itemRepository.findByOwnerId(anyInt(), eq(page))).thenReturn(items);
+        when(itemRepository.findResponsesByOwnerId(anyInt(), eq(page))).thenReturn(itemResponses);
+
+        when(itemCommentCache.getAll(List.of(item.getId()))).thenReturn(Map.of(item.getId(), commentResponses));
 
-        when(commentRepository.findByItemIdAndOwnerId(anyInt())).thenReturn(comments);
+        when(itemMapper.itemFromItemResponse(itemMapper.withOwnerDetails(eq(itemResponse), eq(commentResponses), isNull(), isNull()))).thenReturn(item);
 
-        when(userRepository.getReferenceById(userTwo.getId())).thenReturn(userTwo);
+        List<Item> result = itemService.findByOwnerId(1, 1, 10);
 
-        when(commentMapper.commentResponseFromComment(eq(comment), eq("author"))).thenReturn(commentResponse);
+        assertEquals(result, items);
+        verifyNoInteractions(commentRepository);
+        verify(userRepository, never()).getReferenceById(anyInt());
+    }
+
+    @Test
+    void getAllItemsByUserIdWhenBookingsExist() {
+        PageRequest page = PageRequest.of(1 / 10, 10);
 
-        when(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(eq(item), eq(commentResponses)))).thenReturn(item);
+        when(bookingLast.getItemId()).thenReturn(item.getId());
+        when(bookingFuture.getItemId()).thenReturn(item.getId());
+        when(itemRepository.findResponsesByOwnerId(anyInt(), eq(page))).thenReturn(itemResponses);
+        when(bookingRepository.findLastBookingsByItemIds(List.of(item.getId()))).thenReturn(List.of(bookingLast));
+        when(bookingRepository.findNextBookingsByItemIds(List.of(item.getId()))).thenReturn(List.of(bookingFuture));
+
+        when(itemMapper.itemFromItemResponse(itemMapper.withOwnerDetails(itemResponse, new ArrayList<>(), bookingLast, bookingFuture))).thenReturn(item);
 
         List<Item> result = itemService.findByOwnerId(1, 1, 10);
 
@@ -120,7 +179,7 @@ class ItemServiceImplTest {
     @Test
     void getItemByIdWhenUserNotOwner() {
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(commentRepository.findByItemIdAndOwnerId(item.getId())).thenReturn(Collections.emptyList());
+        when(itemCommentCache.get(item.getId())).thenReturn(Collections.emptyList());
 
         when(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, Collections.emptyList()))).thenReturn(item);
 
@@ -131,14 +190,14 @@ class ItemServiceImplTest {
 
     @Test
     void createItemWhenItemValid() {
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
 
         when(itemRepository.save(item)).thenReturn(item);
 
         Item createdItem = itemService.createItem(item);
 
-        verify(userRepository).findById(1);
+        verify(userIdRegistry).check(1);
         verify(itemRepository).save(item);
+        verify(itemSearchIndex).index(item);
         assertEquals(item, createdItem);
     }
 
@@ -149,9 +208,7 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
-        when(commentRepository.findByItemIdAndOwnerId(item.getId())).thenReturn(comments);
-
-        when(userRepository.getReferenceById(comment.getAuthorName().getId())).thenReturn(userTwo);
+        when(itemCommentCache.get(item.getId())).thenReturn(commentResponses);
 
         when(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, commentResponses))).thenReturn(item);
 
@@ -163,14 +220,11 @@ class ItemServiceImplTest {
     @Test
     void updateItemWhenCommentsNotEmpty() {
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        when(userRepository.findById(item.getOwner().getId())).thenReturn(Optional.of(item.getOwner()));
-        when(commentRepository.findByItemIdAndOwnerId(item.getId())).thenReturn(comments);
-        when(userRepository.getReferenceById(comment.getAuthorName().getId())).thenReturn(userTwo);
-        when(commentMapper.commentResponseFromComment(any(), any())).thenReturn(commentResponse);
+        when(itemCommentCache.get(item.getId())).thenReturn(commentResponses);
 
         when(itemRepository.save(any())).thenReturn(item);
 
-        Item result = itemService.updateItem(item);
+        Item result = itemService.updateItem(item, null);
 
         assertEquals(item.getName(), result.getName());
         assertEquals(item.getDescription(), result.getDescription());
@@ -185,10 +239,9 @@ class ItemServiceImplTest {
         int userId = 1;
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItemId(item.getId())).thenReturn(bookings);
-        when(bookingRepository.findByOwnerIdAndItemIdPastBookings(item.getOwner().getId(), item.getId())).thenReturn(pastBookings);
-        when(bookingRepository.findByOwnerIdAndItemIdFutureBookings(item.getOwner().getId(), item.getId())).thenReturn(futureBookings);
-        when(itemMapper.itemFromItemResponse(itemMapper.itemForOwner(item, Collections.emptyList(), bookings, pastBookings, futureBookings))).thenReturn(item);
+        when(bookingRepository.findLastBookingByItemId(item.getId())).thenReturn(Optional.of(bookingLast));
+        when(bookingRepository.findNextBookingByItemId(item.getId())).thenReturn(Optional.of(bookingFuture));
+        when(itemMapper.itemFromItemResponse(itemMapper.itemForOwner(item, Collections.emptyList(), bookingLast, bookingFuture))).thenReturn(item);
 
         Item result = itemService.getItemById(itemId, userId);
         assertEquals(result, item);
@@ -212,9 +265,8 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(1)).thenReturn(Optional.of(itemUpd));
 
-        when(userRepository.findById(item.getOwner().getId())).thenReturn(Optional.of(user));
 
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.updateItem(item));
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.updateItem(item, null));
 
         assertEquals("Пользователь " + userId + " не является владельцем  вещи " + itemUpd.getId(), exception.getMessage());
     }
@@ -223,29 +275,54 @@ class ItemServiceImplTest {
     void findByOwnerIdWhenCommentExists() {
         PageRequest page = PageRequest.of(1 / 10, 10);
 
-        when(itemRepository.findByOwnerId(anyInt(), eq(page))).thenReturn(items);
-        when(commentRepository.findByItemIdAndOwnerId(anyInt())).thenReturn(new ArrayList<>());
+        when(itemRepository.findResponsesByOwnerId(anyInt(), eq(page))).thenReturn(itemResponses);
+        when(itemCommentCache.getAll(anyCollection())).thenReturn(Map.of());
 
-        when(itemMapper.itemFromItemResponse(itemMapper.itemForOwner(item, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList()))).thenReturn(item);
+        when(itemMapper.itemFromItemResponse(itemMapper.withOwnerDetails(itemResponse, Collections.emptyList(), null, null))).thenReturn(item);
 
         List<Item> result = itemService.findByOwnerId(1, 1, 10);
 
         assertEquals(result, items);
     }
 
+    @Test
+    void findByOwnerIdWhenItemsNotFound() {
+        PageRequest page = PageRequest.of(1 / 10, 10);
+
+        when(itemRepository.findResponsesByOwnerId(anyInt(), eq(page))).thenReturn(Collections.emptyList());
+
+        List<Item> result = itemService.findByOwnerId(1, 1, 10);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(commentRepository, bookingRepository);
+    }
+
     @Test
     void updateItemWhenItemValidUserOwnerWithoutComments() {
         when(itemRepository.findById(1)).thenReturn(Optional.of(item));
 
-        when(userRepository.findById(item.getOwner().getId())).thenReturn(Optional.of(user));
 
-        when(commentRepository.findByItemIdAndOwnerId(itemUpd.getId())).thenReturn(Collections.emptyList());
+        when(itemCommentCache.get(itemUpd.getId())).thenReturn(Collections.emptyList());
 
         when(itemRepository.save(itemUpd)).thenReturn(itemUpd);
 
-        Item itemSaved = itemService.updateItem(item);
+        Item itemSaved = itemService.updateItem(item, null);
 
         assertEquals(itemSaved, itemUpd);
+        verify(entityCacheEvictor).evict(Item.class, itemUpd.getId());
+    }
+
+    @Test
+    void updateItemWhenIfMatchVersionIsStale() {
+        Item stored = new Item(1, "Test", "Test", user, true);
+        stored.setVersion(5L);
+        when(itemRepository.findById(1)).thenReturn(Optional.of(stored));
+
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class,
+                () -> itemService.updateItem(new Item(1, "New", null, user, true), 4L));
+
+        assertEquals("Версия 4 устарела, текущая версия 5", exception.getMessage());
+        verify(itemRepository, never()).save(any());
     }
 
     @Test
@@ -271,24 +348,27 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
-        when(bookingRepository.findByBookerIdAndItemIdPastBookings(userTwo.getId(), item.getId())).thenReturn(pastBookings);
+        when(bookingRepository.findBookingResponses(startedBookingsOf(item))).thenReturn(pastBookings);
 
-        when(bookingRepository.findByBookerIdAndItemIdFutureBookings(userTwo.getId(), item.getId())).thenReturn(futureBookings);
+        when(bookingRepository.findBookingResponses(unfinishedBookingsOf(item))).thenReturn(futureBookings);
 
         when(commentMapper.commentFromCommentRequest(commentMapper.commentRequestFromComment(comment), userTwo, item)).thenReturn(comment);
 
         when(commentRepository.save(comment)).thenReturn(comment);
 
+        when(commentMapper.commentResponse(comment)).thenReturn(commentResponse);
+
         Comment test = itemService.addComment(itemId, comment, userId);
 
         assertEquals(test, comment);
+        verify(itemCommentCache).add(item.getId(), commentResponse);
     }
 
     @Test
     void searchItemsBySubstringWhenSubstringEmpty() {
-        when(itemService.searchBySubstring("test", "test", 0, 10)).thenReturn(new ArrayList<>());
+        when(itemService.searchBySubstring("test", 0, 10)).thenReturn(new ArrayList<>());
 
-        List<Item> items = itemService.searchBySubstring("test", "test", 0, 10);
+        List<Item> items = itemService.searchBySubstring("test", 0, 10);
 
         assertEquals(Collections.emptyList(), items);
     }
@@ -297,36 +377,81 @@ class ItemServiceImplTest {
     void searchItemsBySubstringWhenSubstringTes() {
         PageRequest page = PageRequest.of(1 / 10, 10);
 
-        when(itemRepository.findByNameContainingOrDescriptionContainingIgnoreCase("tes", "tes", page)).thenReturn(items);
-        when(commentRepository.findByItemIdAndOwnerId(anyInt())).thenReturn(Collections.emptyList());
+        when(itemRepository.searchAvailable("tes", page)).thenReturn(itemResponses);
+        when(itemCommentCache.getAll(List.of(item.getId()))).thenReturn(Map.of());
 
-        when(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(any(Item.class), anyList()))).thenReturn(item);
+        when(itemMapper.itemFromItemResponse(itemMapper.withComments(any(ItemResponse.class), anyList()))).thenReturn(item);
 
-        List<Item> itemsResult = itemService.searchBySubstring("tes", "tes", 0, 10);
+        List<Item> itemsResult = itemService.searchBySubstring("tes", 0, 10);
 
         assertEquals(itemsResult.size(), items.size());
         assertEquals(itemsResult.get(0), items.get(0));
     }
 
     @Test
-    void searchItemsBySubstringWhenSubstringTesAndCommentsExists() {
-        PageRequest page = PageRequest.of(1 / 10, 10);
+    void searchItemsBySubstringEscapesLikeWildcards() {
+        PageRequest page = PageRequest.of(0, 10);
 
-        when(itemRepository.findByNameContainingOrDescriptionContainingIgnoreCase("tes", "tes", page)).thenReturn(items);
-        when(commentRepository.findByItemIdAndOwnerId(anyInt())).thenReturn(comments);
+        when(itemRepository.searchAvailable("50\\%\\_\\\\", page)).thenReturn(List.of());
+
+        assertTrue(itemService.searchBySubstring("50%_\\", 0, 10).isEmpty());
+    }
 
-        when(userRepository.getReferenceById(userTwo.getId())).thenReturn(userTwo);
+    @Test
+    void searchItemsBySubstringWhenSubstringTesAndCommentsExists() {
+        PageRequest page = PageRequest.of(1 / 10, 10);
 
-        when(commentMapper.commentResponseFromComment(comment, userTwo.getName())).thenReturn(commentResponse);
+        when(itemRepository.searchAvailable("tes", page)).thenReturn(itemResponses);
+        when(itemCommentCache.getAll(List.of(item.getId()))).thenReturn(Map.of(item.getId(), commentResponses));
 
-        when(itemMapper.itemFromItemResponse(itemMapper.itemResponseFromItemForUser(item, commentResponses))).thenReturn(item);
+        when(itemMapper.itemFromItemResponse(itemMapper.withComments(itemResponse, commentResponses))).thenReturn(item);
 
-        List<Item> itemsResult = itemService.searchBySubstring("tes", "tes", 0, 10);
+        List<Item> itemsResult = itemService.searchBySubstring("tes", 0, 10);
 
         assertEquals(itemsResult.size(), items.size());
         assertEquals(itemsResult.get(0), items.get(0));
     }
 
+    @Test
+    void searchItemsBySubstringUsesIndexWhenEnabled() {
+        PageRequest page = PageRequest.of(0, 10);
+
+        when(itemSearchIndex.isEnabled()).thenReturn(true);
+        when(itemSearchIndex.search("tes", page)).thenReturn(List.of(item.getId()));
+        when(itemRepository.findResponsesByIdIn(List.of(item.getId()))).thenReturn(itemResponses);
+        when(itemCommentCache.getAll(List.of(item.getId()))).thenReturn(Map.of());
+
+        when(itemMapper.itemFromItemResponse(itemMapper.withComments(any(ItemResponse.class), anyList()))).thenReturn(item);
+
+        List<Item> itemsResult = itemService.searchBySubstring("tes", 0, 10);
+
+        assertEquals(items, itemsResult);
+        verify(itemRepository, never()).searchAvailable(anyString(), any());
+    }
+
+    @Test
+    void searchItemsBySubstringWhenIndexFindsNothing() {
+        PageRequest page = PageRequest.of(0, 10);
+
+        when(itemSearchIndex.isEnabled()).thenReturn(true);
+        when(itemSearchIndex.search("tes", page)).thenReturn(Collections.emptyList());
+
+        List<Item> itemsResult = itemService.searchBySubstring("tes", 0, 10);
+
+        assertTrue(itemsResult.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void deleteItemRemovesItemFromSearchIndex() {
+        itemService.deleteItem(item.getId());
+
+        verify(itemRepository).deleteById(item.getId());
+        verify(entityCacheEvictor).evict(Item.class, item.getId());
+        verify(itemCommentCache).evict(item.getId());
+        verify(itemSearchIndex).remove(item.getId());
+    }
+
     @Test
     void addCommentWhenUserNotBooking() {
         int itemId = 1;
@@ -334,7 +459,7 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
-        when(bookingRepository.findByBookerIdAndItemIdPastBookings(user.getId(), item.getId())).thenThrow(new AccessibilityErrorException("Пользователь не бронировал эту вещь, либо бронирование ещё не закончилось"));
+        when(bookingRepository.findBookingResponses(startedBookingsOf(item))).thenThrow(new AccessibilityErrorException("Пользователь не бронировал эту вещь, либо бронирование ещё не закончилось"));
 
         AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> itemService.addComment(itemId, comment, user.getId()));
 
@@ -350,13 +475,78 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
-        when(bookingRepository.findByBookerIdAndItemIdPastBookings(userTwo.getId(), item.getId())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findBookingResponses(startedBookingsOf(item))).thenReturn(Collections.emptyList());
 
-        when(bookingRepository.findByBookerIdAndItemIdFutureBookings(userTwo.getId(), item.getId())).thenReturn(futureBookings);
+        when(bookingRepository.findBookingResponses(unfinishedBookingsOf(item))).thenReturn(futureBookings);
 
 
         AccessibilityErrorException exception = assertThrows(AccessibilityErrorException.class, () -> itemService.addComment(itemId, comment, userId));
 
         assertEquals("Пользователь забронировал эту вещь в будущем", exception.getMessage());
     }
+
+    @Test
+    void createItemsReturnsResultPerRow() {
+        ItemRequest valid = new ItemRequest("Дрель", "Простая дрель", true, 5);
+        ItemRequest blank = new ItemRequest("", "Без названия", true);
+        ItemRequest unknownRequest = new ItemRequest("Отвёртка", "Крестовая", true, 6);
+        Item created = new Item(10, "Дрель", "Простая дрель", user, true);
+
+        when(requestRepository.findExistingIds(Set.of(5, 6))).thenReturn(List.of(5));
+        when(itemMapper.itemFromItemRequest(valid, 1)).thenReturn(created);
+        when(itemRepository.saveAll(List.of(created))).thenReturn(List.of(created));
+        when(itemMapper.itemForCreate(created)).thenReturn(itemResponse);
+
+        List<ItemBatchResult> results = itemService.createItems(1, Arrays.asList(valid, blank, unknownRequest, null));
+
+        assertEquals(List.of(
+                new ItemBatchResult(0, itemResponse, null),
+                new ItemBatchResult(1, null, "Поле названия не может быть пустым"),
+                new ItemBatchResult(2, null, "Запрос 6 не найден"),
+                new ItemBatchResult(3, null, "Пустая вещь")), results);
+        verify(requestRepository, times(1)).findExistingIds(anyCollection());
+        verify(itemSearchIndex).indexAll(List.of(created));
+    }
+
+    @Test
+    void createItemsWithoutRequestsSkipsRequestLookup() {
+        ItemRequest valid = new ItemRequest("Дрель", "Простая дрель", true);
+        Item created = new Item(10, "Дрель", "Простая дрель", user, true);
+
+        when(itemMapper.itemFromItemRequest(valid, 1)).thenReturn(created);
+        when(itemRepository.saveAll(List.of(created))).thenReturn(List.of(created));
+        when(itemMapper.itemForCreate(created)).thenReturn(itemResponse);
+
+        List<ItemBatchResult> results = itemService.createItems(1, List.of(valid));
+
+        assertEquals(List.of(new ItemBatchResult(0, itemResponse, null)), results);
+        verifyNoInteractions(requestRepository);
+    }
+
+    @Test
+    void createItemsWhenOwnerNotFound() {
+        doThrow(new NotFoundException("Пользователь не найден")).when(userIdRegistry).check(1);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemService.createItems(1, List.of(new ItemRequest("Дрель", "Простая дрель", true))));
+
+        assertEquals("Пользователь не найден", exception.getMessage());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void createItemsWhenBatchTooLarge() {
+        List<ItemRequest> requests = Collections.nCopies(10_001, new ItemRequest("Дрель", "Простая дрель", true));
+
+        assertThrows(ValidateException.class, () -> itemService.createItems(1, requests));
+        verifyNoInteractions(userIdRegistry, itemRepository);
+    }
+
+    private static BookingQuery startedBookingsOf(Item item) {
+        return argThat(query -> query != null && query.getRangeEnd() != null && item.getId().equals(query.getItemId()));
+    }
+
+    private static BookingQuery unfinishedBookingsOf(Item item) {
+        return argThat(query -> query != null && query.getRangeStart() != null && item.getId().equals(query.getItemId()));
+    }
 }
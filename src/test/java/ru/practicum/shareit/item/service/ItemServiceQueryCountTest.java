@@ -0,0 +1,168 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingRepository;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
+import ru.practicum.shareit.comments.dto.CommentMapper;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.item.dto.ItemBatchResult;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.service.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.CommentRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.version.OptimisticRetry;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemServiceImpl.class, ItemSearchIndex.class, ItemCommentCache.class, ItemMapper.class, CommentMapper.class,
+        EntityCacheEvictor.class, UserIdRegistry.class, BookingIntervalIndex.class, OptimisticRetry.class,
+        ValidationAutoConfiguration.class})
+class ItemServiceQueryCountTest {
+
+    @Autowired
+    private ItemServiceImpl itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    User owner = new User("owner@gmail.com", "Owner");
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        userRepository.save(owner);
+    }
+
+    @Test
+    void findByOwnerIdIssuesSameQueryCountForAnyPageSize() {
+        createItemsWithHistory(1);
+        long singleItemQueries = countQueries(() -> itemService.findByOwnerId(owner.getId(), 0, 10));
+
+        createItemsWithHistory(9);
+        long tenItemsQueries = countQueries(() -> {
+            List<Item> items = itemService.findByOwnerId(owner.getId(), 0, 10);
+            assertEquals(10, items.size());
+            items.forEach(item -> {
+                assertNotNull(item.getLastBooking());
+                assertNotNull(item.getNextBooking());
+                assertEquals(2, item.getComments().size());
+            });
+        });
+
+        assertEquals(4, singleItemQueries);
+        assertEquals(singleItemQueries, tenItemsQueries);
+    }
+
+    @Test
+    void searchBySubstringLoadsCommentsForAllHitsInOneQuery() {
+        createItemsWithHistory(10);
+
+        long queries = countQueries(() -> {
+            List<Item> items = itemService.searchBySubstring("item", 0, 20);
+            assertEquals(10, items.size());
+            items.forEach(item -> assertEquals(2, item.getComments().size()));
+        });
+
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void getItemByIdForOwnerDoesNotCascadeIntoAssociations() {
+        createItemsWithHistory(1);
+        Integer itemId = itemRepository.findResponsesByOwnerId(owner.getId(), PageRequest.of(0, 1)).get(0).getId();
+
+        long queries = countQueries(() -> {
+            Item item = itemService.getItemById(itemId, owner.getId());
+            assertEquals(2, item.getComments().size());
+            assertNotNull(item.getLastBooking());
+        });
+
+        assertEquals(4, queries);
+    }
+
+    @Test
+    void repeatedItemReadServesCommentsFromCache() {
+        createItemsWithHistory(1);
+        Integer itemId = itemRepository.findResponsesByOwnerId(owner.getId(), PageRequest.of(0, 1)).get(0).getId();
+        countQueries(() -> itemService.getItemById(itemId, owner.getId()));
+
+        long queries = countQueries(() -> assertEquals(2, itemService.getItemById(itemId, owner.getId()).getComments().size()));
+
+        assertEquals(3, queries);
+    }
+
+    @Test
+    void createItemsInsertsWholeBatchWithFewStatements() {
+        Request request = requestRepository.save(new Request("Нужна дрель", owner, LocalDateTime.now()));
+        List<ItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            requests.add(new ItemRequest("Item" + i, "Description", true, i % 2 == 0 ? request.getId() : null));
+        }
+
+        long queries = countQueries(() -> {
+            List<ItemBatchResult> results = itemService.createItems(owner.getId(), requests);
+            entityManager.flush();
+            assertEquals(1000, results.stream().filter(result -> result.getItem() != null).count());
+        });
+
+        assertTrue(queries <= 2 + 1000 / 50 + 1000 / 50,
+                () -> "Ожидалась пакетная вставка, подготовлено запросов: " + queries);
+        assertEquals(1000, itemRepository.findResponsesByOwnerId(owner.getId(), PageRequest.of(0, 2000)).size());
+    }
+
+    private void createItemsWithHistory(int count) {
+        for (int i = 0; i < count; i++) {
+            User booker = userRepository.save(new User("booker" + i + "-" + System.nanoTime() + "@gmail.com", "Booker"));
+            Item item = itemRepository.save(new Item("Item", "Description", owner, true));
+            bookingRepository.save(new Booking(item, booker, BookingStatus.APPROVED,
+                    LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+            bookingRepository.save(new Booking(item, booker, BookingStatus.APPROVED,
+                    LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+            commentRepository.save(new Comment("First", item, LocalDateTime.now(), booker));
+            commentRepository.save(new Comment("Second", item, LocalDateTime.now(), booker));
+        }
+    }
+
+    private long countQueries(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PrometheusScrapeTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void prometheusEndpointExposesRequestRepositoryPoolAndHibernateMetrics() throws Exception {
+        mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Metrics\", \"email\": \"metrics@gmail.com\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{controller=\"ItemController\"")))
+                .andExpect(content().string(containsString("handler=\"searchBySubstring\"")))
+                .andExpect(content().string(containsString("handler=\"createUser\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("repository=\"ItemRepository\"")))
+                .andExpect(content().string(containsString("method=\"searchAvailable\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total")))
+                .andExpect(content().string(containsString("region=\"users\"")));
+    }
+}
@@ -13,6 +13,7 @@ import ru.practicum.shareit.request.dto.CreateItemRequest;
 import ru.practicum.shareit.request.dto.CreateItemRequestResponse;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.service.RequestServiceImpl;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -36,6 +37,8 @@ class RequestControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private RequestServiceImpl requestService;
+    @MockBean
+    private UserIdRegistry userIdRegistry;
 
     @Test
     void postRequest() throws Exception {
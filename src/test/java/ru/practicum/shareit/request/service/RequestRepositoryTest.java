@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.request.dto.UsersItemRequestResponse;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserRepository;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.user.service.UserRepository;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -79,6 +81,12 @@ class RequestRepositoryTest {
         assertEquals(requestList.size(), 2);
         assertEquals(requestList.get(0), requestTwo);
         assertEquals(requestList.get(1), requestThree);
+
+        List<UsersItemRequestResponse> responses = requestRepository.findResponsesNotForCreator(requestor.getId());
+
+        assertEquals(List.of(requestTwo.getId(), requestThree.getId()),
+                responses.stream().map(UsersItemRequestResponse::getId).collect(Collectors.toList()));
+        assertEquals(requestTwo.getCreatedDate(), responses.get(0).getCreated());
     }
 
     @Test
@@ -9,14 +9,12 @@ import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.dto.ItemForRequest;
-import ru.practicum.shareit.item.dto.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemRepository;
 import ru.practicum.shareit.request.dto.UsersItemRequestResponse;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.service.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -24,6 +22,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -34,7 +33,7 @@ class RequestServiceImplTest {
     private RequestServiceImpl requestService;
 
     @Mock
-    private UserRepository userRepository;
+    private UserIdRegistry userIdRegistry;
 
     @Mock
     private ItemRepository itemRepository;
@@ -42,8 +41,6 @@ class RequestServiceImplTest {
     @Mock
     private RequestRepository requestRepository;
 
-    @Mock
-    private ItemMapper itemMapper;
     @Mock
     private ItemRequestMapper itemRequestMapper;
 
@@ -53,7 +50,6 @@ class RequestServiceImplTest {
                 .id(1)
                 .build();
 
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
 
         Request request = Request.builder()
                 .description("Test")
@@ -72,7 +68,7 @@ class RequestServiceImplTest {
 
         Request createdRequest = requestService.createRequest(request);
 
-        verify(userRepository).findById(1);
+        verify(userIdRegistry).check(1);
         verify(requestRepository).save(request);
         assertEquals(requestSaved, createdRequest);
     }
@@ -85,20 +81,6 @@ class RequestServiceImplTest {
                 .id(1)
                 .build();
 
-        Request request = Request.builder()
-                .id(1)
-                .description("test")
-                .requestor(requestor)
-                .createdDate(LocalDateTime.now().minusDays(1))
-                .build();
-
-        Item item = Item.builder()
-                .id(1)
-                .name("dasd")
-                .description("dsad")
-                .available(true)
-                .build();
-
         ItemForRequest itemZ = ItemForRequest.builder()
                 .id(1)
                 .name("dasd")
@@ -107,33 +89,19 @@ class RequestServiceImplTest {
                 .requestId(1)
                 .build();
 
-        List<ItemForRequest> items = List.of(itemZ);
-
-        List<Request> requests = List.of(request);
-
-        UsersItemRequestResponse requestT = UsersItemRequestResponse.builder()
-                .id(1)
-                .description("test")
-                .created(LocalDateTime.now().minusDays(1))
-                .currentDate(LocalDateTime.now())
-                .items(items)
-                .build();
-
-        List<UsersItemRequestResponse> usersItemRequestResponses = List.of(requestT);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(requestor));
-
-        when(requestService.getRequests(userId)).thenReturn(requests);
+        UsersItemRequestResponse requestT = new UsersItemRequestResponse(1, "test", LocalDateTime.now().minusDays(1));
 
-        when(itemRepository.findByRequestId(request.getId())).thenReturn(item);
 
-        when(itemMapper.itemForRequestFromItem(item)).thenReturn(itemZ);
+        when(requestRepository.findResponsesByRequestorId(userId)).thenReturn(List.of(requestT));
 
-        when(itemRequestMapper.requestForUser(request, items)).thenReturn(requestT);
+        when(itemRepository.findForRequests(List.of(requestT.getId()))).thenReturn(List.of(itemZ));
 
         List<UsersItemRequestResponse> result = requestService.getRequestsForUser(userId);
 
-        assertEquals(result.size(), usersItemRequestResponses.size());
-        assertEquals(result.get(0), usersItemRequestResponses.get(0));
+        assertEquals(1, result.size());
+        assertEquals(List.of(itemZ), result.get(0).getItems());
+        assertNotNull(result.get(0).getCurrentDate());
+        verifyNoInteractions(itemRequestMapper);
     }
 
     @Test
@@ -182,25 +150,6 @@ class RequestServiceImplTest {
         int from = 1;
         int size = 10;
 
-        User requestor = User.builder()
-                .id(1)
-                .build();
-
-        Request request = Request.builder()
-                .id(1)
-                .description("Test")
-                .requestor(requestor)
-                .createdDate(LocalDateTime.now().minusDays(1))
-                .build();
-
-        Item item = Item.builder()
-                .id(1)
-                .name("dasd")
-                .description("dsad")
-                .available(true)
-                .request(request)
-                .build();
-
         ItemForRequest request1 = ItemForRequest.builder()
                 .id(1)
                 .name("dasd")
@@ -209,29 +158,48 @@ class RequestServiceImplTest {
                 .requestId(1)
                 .build();
 
-        List<ItemForRequest> itemForRequest = Collections.singletonList(request1);
-        List<Request> requests = Collections.singletonList(request);
-
         PageRequest page = PageRequest.of(from / size, size);
-        UsersItemRequestResponse usersItemRequestResponse = UsersItemRequestResponse.builder()
-                .id(1)
-                .description("dasd")
-                .items(itemForRequest)
-                .build();
+        UsersItemRequestResponse usersItemRequestResponse = new UsersItemRequestResponse(1, "dasd", LocalDateTime.now().minusDays(1));
 
-        List<UsersItemRequestResponse> usersItemRequestResponses = Collections.singletonList(usersItemRequestResponse);
+        when(requestRepository.findResponsesNotForCreator(eq(userId), eq(page))).thenReturn(List.of(usersItemRequestResponse));
 
-        when(requestRepository.findAllNotForCreator(eq(userId), eq(page))).thenReturn(requests);
+        when(itemRepository.findForRequests(List.of(usersItemRequestResponse.getId()))).thenReturn(List.of(request1));
+
+        List<UsersItemRequestResponse> result = requestService.getAllRequestForUser(userId, from, size);
+
+        assertEquals(result.get(0).getId(), usersItemRequestResponse.getId());
+        assertEquals(List.of(request1), result.get(0).getItems());
+    }
 
-        when(itemRepository.findByRequestId(request.getId())).thenReturn(item);
+    @Test
+    void getAllRequestsForUserGroupsAllAnsweringItems() {
+        int userId = 1;
 
-        when(itemMapper.itemForRequestFromItem(item)).thenReturn(request1);
+        UsersItemRequestResponse first = new UsersItemRequestResponse(1, "Дрель", LocalDateTime.now().minusDays(2));
+        UsersItemRequestResponse second = new UsersItemRequestResponse(2, "Пила", LocalDateTime.now().minusDays(1));
 
-        when(itemRequestMapper.requestForUser(request, itemForRequest)).thenReturn(usersItemRequestResponse);
+        ItemForRequest drill = ItemForRequest.builder().id(1).requestId(1).build();
+        ItemForRequest otherDrill = ItemForRequest.builder().id(2).requestId(1).build();
 
-        List<UsersItemRequestResponse> result = requestService.getAllRequestForUser(userId, from, size);
+        when(requestRepository.findResponsesNotForCreator(userId)).thenReturn(List.of(first, second));
+        when(itemRepository.findForRequests(List.of(1, 2))).thenReturn(List.of(drill, otherDrill));
+
+        List<UsersItemRequestResponse> result = requestService.getAllRequestForUser(userId, null, null);
+
+        assertEquals(List.of(first, second), result);
+        assertEquals(List.of(drill, otherDrill), result.get(0).getItems());
+        assertEquals(Collections.emptyList(), result.get(1).getItems());
+        verify(itemRepository, times(1)).findForRequests(anyCollection());
+    }
+
+    @Test
+    void getAllRequestsForUserWhenRequestsNotFound() {
+        when(requestRepository.findResponsesNotForCreator(1)).thenReturn(Collections.emptyList());
 
-        assertEquals(result.get(0).getId(), usersItemRequestResponses.get(0).getId());
+        List<UsersItemRequestResponse> result = requestService.getAllRequestForUser(1, null, null);
+
+        assertEquals(Collections.emptyList(), result);
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -260,13 +228,6 @@ class RequestServiceImplTest {
                 .createdDate(LocalDateTime.now().minusDays(1))
                 .build();
 
-        Item item = Item.builder()
-                .id(1)
-                .name("dasd")
-                .description("dsad")
-                .available(true)
-                .build();
-
         ItemForRequest itemForRequest = ItemForRequest.builder()
                 .id(1)
                 .name("dasd")
@@ -284,14 +245,11 @@ class RequestServiceImplTest {
 
         List<ItemForRequest> requestList = List.of(itemForRequest);
 
-        when(userRepository.findById(requestId)).thenReturn(Optional.of(user));
 
-        when(itemRepository.findByRequestId(requestId)).thenReturn(item);
+        when(itemRepository.findForRequests(List.of(requestId))).thenReturn(requestList);
 
         when(requestRepository.findById(requestId)).thenReturn(Optional.of(request));
 
-        when(itemMapper.itemForRequestFromItem(item)).thenReturn(itemForRequest);
-
         when(itemRequestMapper.requestForUser(request, requestList)).thenReturn(requestResp);
 
         UsersItemRequestResponse result = requestService.getRequestByIdForUser(requestId, userId);
@@ -306,7 +264,7 @@ class RequestServiceImplTest {
                 .id(1)
                 .build();
 
-        when(userRepository.findById(anyInt())).thenThrow(new NotFoundException("Пользователь не найден"));
+        doThrow(new NotFoundException("Пользователь не найден")).when(userIdRegistry).check(anyInt());
 
         Request request = Request.builder()
                 .description("Test")
@@ -325,7 +283,6 @@ class RequestServiceImplTest {
                 .id(1)
                 .build();
 
-        when(userRepository.findById(1)).thenReturn(Optional.of(user));
 
 
         Request requestOne = Request.builder()
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.UsersItemRequestResponse;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+import ru.practicum.shareit.user.service.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RequestServiceImpl.class, ItemRequestMapper.class, UserIdRegistry.class})
+class RequestServiceQueryCountTest {
+
+    @Autowired
+    private RequestServiceImpl requestService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    User viewer = new User("viewer@gmail.com", "Viewer");
+    User owner = new User("owner@gmail.com", "Owner");
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        userRepository.save(viewer);
+        userRepository.save(owner);
+    }
+
+    @Test
+    void getAllRequestForUserIssuesSameQueryCountForAnyPageSize() {
+        createRequestsWithAnswers(1);
+        long singleRequestQueries = countQueries(() -> requestService.getAllRequestForUser(viewer.getId(), 0, 10));
+
+        createRequestsWithAnswers(9);
+        long tenRequestsQueries = countQueries(() -> {
+            List<UsersItemRequestResponse> requests = requestService.getAllRequestForUser(viewer.getId(), 0, 10);
+            assertEquals(10, requests.size());
+            requests.forEach(request -> assertEquals(2, request.getItems().size()));
+        });
+
+        assertEquals(2, singleRequestQueries);
+        assertEquals(singleRequestQueries, tenRequestsQueries);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void createRequestsWithAnswers(int count) {
+        for (int i = 0; i < count; i++) {
+            User requestor = userRepository.save(new User("requestor" + i + "-" + System.nanoTime() + "@gmail.com", "Requestor"));
+            Request request = requestRepository.save(new Request("Нужна дрель", requestor, LocalDateTime.now()));
+            itemRepository.save(new Item("Дрель", "Ударная", owner, true, request));
+            itemRepository.save(new Item("Дрель", "Аккумуляторная", owner, true, request));
+        }
+    }
+
+    private long countQueries(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
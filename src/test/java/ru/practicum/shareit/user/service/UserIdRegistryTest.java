@@ -0,0 +1,82 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserIdRegistry userIdRegistry;
+
+    @BeforeEach
+    void setUp() {
+        userIdRegistry = new UserIdRegistry(userRepository);
+    }
+
+    @Test
+    void knownUsersAreAnsweredFromMemory() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1, 51, 101));
+
+        assertTrue(userIdRegistry.exists(1));
+        assertTrue(userIdRegistry.exists(101));
+        assertTrue(userIdRegistry.exists(51));
+
+        verify(userRepository, times(1)).findAllIds();
+        verify(userRepository, never()).existsById(1);
+    }
+
+    @Test
+    void unknownUserIsConfirmedInDatabaseOnce() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1));
+        when(userRepository.existsById(7)).thenReturn(true);
+
+        assertTrue(userIdRegistry.exists(7));
+        assertTrue(userIdRegistry.exists(7));
+
+        verify(userRepository, times(1)).existsById(7);
+    }
+
+    @Test
+    void checkRejectsMissingUser() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1));
+        when(userRepository.existsById(2)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> userIdRegistry.check(2));
+
+        assertEquals("Пользователь не найден", exception.getMessage());
+        assertFalse(userIdRegistry.exists(-1));
+        assertFalse(userIdRegistry.exists(null));
+    }
+
+    @Test
+    void addAndRemoveKeepRegistryInSync() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1));
+        userIdRegistry.exists(1);
+
+        userIdRegistry.add(5);
+        userIdRegistry.remove(1);
+
+        assertTrue(userIdRegistry.exists(5));
+        when(userRepository.existsById(1)).thenReturn(false);
+        assertFalse(userIdRegistry.exists(1));
+        verify(userRepository, never()).existsById(5);
+    }
+}
@@ -6,8 +6,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.cache.EntityCacheEvictor;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.service.ItemCommentCache;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
@@ -23,14 +25,20 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
     private UserServiceImpl userService;
     private UserRepository userRepository;
+    private EntityCacheEvictor entityCacheEvictor;
+    private ItemCommentCache itemCommentCache;
+    private UserIdRegistry userIdRegistry;
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
+        entityCacheEvictor = mock(EntityCacheEvictor.class);
+        itemCommentCache = mock(ItemCommentCache.class);
+        userIdRegistry = mock(UserIdRegistry.class);
 
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, entityCacheEvictor, itemCommentCache, userIdRegistry);
     }
 
     @Test
@@ -42,6 +50,7 @@ class UserServiceTest {
 
         User user1 = userService.createUser(user);
         verify(userRepository).save(user);
+        verify(userIdRegistry).add(savedUser.getId());
         assertNotNull(user1);
         assertEquals(user1.getId(), savedUser.getId());
     }
@@ -124,6 +133,8 @@ class UserServiceTest {
 
         assertEquals("bob2@gamail.com", savedUSer.getEmail());
         assertEquals("Bob2", savedUSer.getName());
+        verify(entityCacheEvictor).evict(User.class, id);
+        verify(itemCommentCache).evictAll();
     }
 
     @Test
@@ -133,6 +144,8 @@ class UserServiceTest {
         userService.deleteUser(user.getId());
 
         verify(userRepository).deleteById(user.getId());
+        verify(entityCacheEvictor).evict(User.class, user.getId());
+        verify(userIdRegistry).remove(user.getId());
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
 